@@ -0,0 +1,39 @@
+package com.example.store.benchmark;
+
+import com.example.store.entity.Product;
+import com.example.store.entity.Store;
+import com.example.store.entity.Supplier;
+import com.example.store.id.UuidV7;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Наборы сущностей для бенчмарков, значения похожи на данные из insert_test_data.sql
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Store> stores(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Store(UuidV7.next(), "Магазин " + i, "Москва, ул. Ленина, " + i,
+                        "store" + i + "@example.com", null, null))
+                .toList();
+    }
+
+    static List<Product> products(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Product(UuidV7.next(), "Товар " + i,
+                        BigDecimal.valueOf(i % 100_000 + 99, 2), "category-" + i % 10))
+                .toList();
+    }
+
+    static List<Supplier> suppliers(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Supplier(UuidV7.next(), "Поставщик " + i, "supplier" + i + "@example.com",
+                        "+7555000" + i, "пр. Ленина, " + i, "www.supplier" + i + ".example.com", null, null))
+                .toList();
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.mapper.StoreMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация ответов списочных эндпоинтов тем же ObjectMapper, что настраивает Spring Boot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<AllStoresResponseDto> stores;
+    private List<ProductResponseDto> products;
+
+    @Setup
+    public void setUp() {
+
+        StoreMapper storeMapper = new StoreMapper();
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        stores = BenchmarkData.stores(size).stream().map(storeMapper::mapToAllStoresResponseDto).toList();
+        products = BenchmarkData.products(size).stream().map(storeMapper::mapToProductResponseDto).toList();
+
+    }
+
+    @Benchmark
+    public byte[] serializeAllStoresResponseDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(stores);
+    }
+
+    @Benchmark
+    public byte[] serializeProductResponseDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.dto.SupplierResponseDto;
+import com.example.store.entity.Product;
+import com.example.store.entity.Store;
+import com.example.store.entity.Supplier;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.mapper.SupplierMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Преобразование списков сущностей в DTO мапперами StoreMapper и SupplierMapper
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final StoreMapper storeMapper = new StoreMapper();
+    private final SupplierMapper supplierMapper = new SupplierMapper();
+
+    private List<Store> stores;
+    private List<Product> products;
+    private List<Supplier> suppliers;
+
+    @Setup
+    public void setUp() {
+        stores = BenchmarkData.stores(size);
+        products = BenchmarkData.products(size);
+        suppliers = BenchmarkData.suppliers(size);
+    }
+
+    @Benchmark
+    public List<StoreResponseDto> mapToStoreResponseDto() {
+        return stores.stream().map(storeMapper::mapToStoreResponseDto).toList();
+    }
+
+    @Benchmark
+    public List<AllStoresResponseDto> mapToAllStoresResponseDto() {
+        return stores.stream().map(storeMapper::mapToAllStoresResponseDto).toList();
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> mapToProductResponseDto() {
+        return products.stream().map(storeMapper::mapToProductResponseDto).toList();
+    }
+
+    @Benchmark
+    public List<SupplierResponseDto> mapToSupplierResponseDto() {
+        return suppliers.stream().map(supplierMapper::mapToSupplierResponseDto).toList();
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.store.benchmark;
+
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.index.LocationIndex;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.readmodel.ProductReadModel;
+import com.example.store.repository.ProductRepository;
+import com.example.store.service.StoreService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Часть findAllProductByLocation и findUniqueProducts, выполняемая в JVM: репозиторий заменён заглушкой
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreServiceBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private StoreService storeService;
+
+    @Setup
+    public void setUp() {
+
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        when(productRepository.findAllByStoreLocationLike(anyString())).thenReturn(BenchmarkData.products(size));
+        when(productRepository.findUniqueProducts()).thenReturn(BenchmarkData.products(size));
+
+        // Индекс адресов и витрины выключены (поля enabled по умолчанию false): замеряется путь через репозиторий
+        ProductReadModel productReadModel = new ProductReadModel();
+        ReflectionTestUtils.setField(productReadModel, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(productReadModel, "init");
+
+        storeService = new StoreService();
+        ReflectionTestUtils.setField(storeService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(storeService, "storeMapper", new StoreMapper());
+        ReflectionTestUtils.setField(storeService, "locationIndex", new LocationIndex());
+        ReflectionTestUtils.setField(storeService, "productReadModel", productReadModel);
+
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> findAllProductByLocation() {
+        return storeService.findAllProductByLocation("ул. Ленина");
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> findUniqueProducts() {
+        return storeService.findUniqueProducts();
+    }
+
+}
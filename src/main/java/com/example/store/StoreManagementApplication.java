@@ -2,8 +2,11 @@ package com.example.store;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC-соединения для профиля reactive создаёт ReactiveConfig: автоконфигурированный ConnectionFactory
+// отключил бы DataSource, на котором работают JPA и Flyway
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class StoreManagementApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,60 @@
+package com.example.store.changes;
+
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+// Запись событий в outbox-таблицу change_events. Только внутри транзакции изменения:
+// событие фиксируется вместе с данными и рассылается триггером через NOTIFY после коммита
+@Component
+public class ChangeFeed {
+
+    private static final String INSERT_EVENT = "INSERT INTO change_events (entity_type, entity_id, operation, origin) " +
+            "VALUES (?, ?, ?, ?)";
+
+    // Идентификатор этого экземпляра: свои события слушатель отличает от чужих
+    private final UUID nodeId = UUID.randomUUID();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public UUID nodeId() {
+        return nodeId;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, UUID entityId, Operation operation) {
+
+        jdbcTemplate.update(INSERT_EVENT, entityType.name(), entityId, operation.name(), nodeId);
+
+    }
+
+    // Массовая загрузка в обход JPA: одно событие без id, остальные экземпляры перечитывают данные целиком
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordImport(EntityType entityType) {
+
+        jdbcTemplate.update(INSERT_EVENT, entityType.name(), null, Operation.IMPORTED.name(), nodeId);
+
+    }
+
+    // Несколько событий одного вида одним пакетом
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, Collection<UUID> entityIds, Operation operation) {
+
+        jdbcTemplate.batchUpdate(INSERT_EVENT, entityIds, entityIds.size(), (statement, entityId) -> {
+            statement.setString(1, entityType.name());
+            statement.setObject(2, entityId);
+            statement.setString(3, operation.name());
+            statement.setObject(4, nodeId);
+        });
+
+    }
+
+}
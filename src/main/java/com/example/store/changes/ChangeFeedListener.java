@@ -0,0 +1,260 @@
+package com.example.store.changes;
+
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Слушает канал change_events (LISTEN) на отдельном соединении вне пула и публикует каждое
+// полученное событие как EntityChange в контексте Spring. Доставка «хотя бы один раз»: после обрыва
+// соединения события с момента последнего полученного догружаются из таблицы, поэтому обработчики
+// должны быть идемпотентными (вытеснить из кэша, перечитать запись)
+@Component
+public class ChangeFeedListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedListener.class);
+
+    private static final String CHANNEL = "change_events";
+    private static final int POLL_MILLIS = 1_000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+
+    // Транзакция, начавшаяся раньше, может закоммитить событие позже: догрузка берёт события с запасом
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private static final String SELECT_SINCE = "SELECT id, entity_type, entity_id, operation, origin, created_at " +
+            "FROM change_events WHERE created_at > ? ORDER BY id";
+
+    private static final String DELETE_OLDER_THAN = "DELETE FROM change_events " +
+            "WHERE created_at < clock_timestamp() - make_interval(secs => ?)";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${store.change-feed.listen:true}")
+    private boolean enabled;
+
+    @Value("${store.change-feed.retention:1d}")
+    private Duration retention;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+    private Timer lag;
+
+    // Время последнего полученного события по часам БД: с него начинается догрузка после переподключения
+    private OffsetDateTime receivedUpTo;
+    private long nextCleanupAt;
+
+    @PostConstruct
+    void init() {
+        lag = Timer.builder("store.change-feed.lag")
+                .description("Задержка от записи события в change_events до его получения этим экземпляром")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!enabled || running) {
+            return;
+        }
+
+        running = true;
+        thread = Thread.ofPlatform().name("change-feed").daemon().start(this::listen);
+
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        running = false;
+
+        if (thread != null) {
+            closeQuietly(connection);
+            thread.join(POLL_MILLIS * 2L);
+        }
+
+    }
+
+    private void listen() {
+
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+
+                connection = listening;
+
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                // После LISTEN ни одно новое событие не потеряется, пропущенные за время обрыва догружаем из таблицы
+                if (receivedUpTo == null) {
+                    receivedUpTo = databaseTime(listening);
+                } else {
+                    catchUp(listening);
+                }
+
+                log.info("Change feed: listening on channel '{}'", CHANNEL);
+
+                PGConnection notifications = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            dispatch(parse(notification.getParameter()));
+                        }
+                    }
+                    cleanupIfDue(listening);
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Change feed: connection lost, reconnecting in {}", RECONNECT_DELAY, e);
+                    sleep(RECONNECT_DELAY);
+                }
+            }
+        }
+
+    }
+
+    private void catchUp(Connection listening) throws SQLException {
+
+        int caughtUp = 0;
+
+        try (PreparedStatement statement = listening.prepareStatement(SELECT_SINCE)) {
+            statement.setObject(1, receivedUpTo.minus(CATCH_UP_MARGIN));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    dispatch(new EntityChange(rs.getLong(1), EntityType.valueOf(rs.getString(2)),
+                            rs.getObject(3, UUID.class), Operation.valueOf(rs.getString(4)),
+                            rs.getObject(5, UUID.class), rs.getObject(6, OffsetDateTime.class)));
+                    caughtUp++;
+                }
+            }
+        }
+
+        log.info("Change feed: {} events since {} replayed after reconnect", caughtUp, receivedUpTo);
+
+    }
+
+    private void dispatch(EntityChange change) {
+
+        if (change == null) {
+            return;
+        }
+
+        if (receivedUpTo == null || change.createdAt().isAfter(receivedUpTo)) {
+            receivedUpTo = change.createdAt();
+        }
+
+        lag.record(Duration.between(change.createdAt(), OffsetDateTime.now()));
+
+        // Ошибка одного обработчика не должна останавливать ленту
+        try {
+            eventPublisher.publishEvent(change);
+        } catch (RuntimeException e) {
+            log.warn("Change feed: handling of {} failed", change, e);
+        }
+
+    }
+
+    private EntityChange parse(String payload) {
+
+        try {
+            return objectMapper.readValue(payload, EntityChange.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Change feed: malformed notification skipped: {}", payload, e);
+            return null;
+        }
+
+    }
+
+    // Старые события нужны только для догрузки после обрыва: удаляем их раз в час
+    private void cleanupIfDue(Connection listening) throws SQLException {
+
+        if (System.currentTimeMillis() < nextCleanupAt) {
+            return;
+        }
+
+        nextCleanupAt = System.currentTimeMillis() + CLEANUP_INTERVAL.toMillis();
+
+        try (PreparedStatement statement = listening.prepareStatement(DELETE_OLDER_THAN)) {
+            statement.setLong(1, retention.toSeconds());
+            int deleted = statement.executeUpdate();
+            if (deleted > 0) {
+                log.info("Change feed: {} events older than {} deleted", deleted, retention);
+            }
+        }
+
+    }
+
+    private static OffsetDateTime databaseTime(Connection listening) throws SQLException {
+
+        try (Statement statement = listening.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT clock_timestamp()")) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class);
+        }
+
+    }
+
+    private static void closeQuietly(Connection listening) {
+
+        if (listening == null) {
+            return;
+        }
+
+        try {
+            listening.close();
+        } catch (SQLException e) {
+            log.debug("Change feed: error while closing connection", e);
+        }
+
+    }
+
+    private static void sleep(Duration delay) {
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+    }
+
+}
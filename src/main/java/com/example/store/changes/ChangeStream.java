@@ -0,0 +1,279 @@
+package com.example.store.changes;
+
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.dto.ChangeEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Изменения магазинов и поставщиков для клиентов по SSE (GET /changes). Источник — лента изменений: сюда
+// приходят все закоммиченные события, в том числе сделанные другими экземплярами. Последние replay-size событий
+// хранятся в памяти (при старте — догружаются из change_events), по ним клиент с Last-Event-ID получает
+// пропущенное за время переподключения. Если нужного события в буфере нет (вытеснено или получено клиентом
+// через другой экземпляр), клиент получает reset
+// и должен заново загрузить список целиком
+@Component
+public class ChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStream.class);
+
+    public static final String RESET_EVENT = "reset";
+
+    private static final Set<EntityType> STREAMED = EnumSet.of(EntityType.STORE, EntityType.SUPPLIER);
+
+    private static final String SELECT_LATEST = "SELECT id, entity_type, entity_id, operation, origin, created_at " +
+            "FROM change_events WHERE entity_type IN ('STORE', 'SUPPLIER') ORDER BY id DESC LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${store.change-stream.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${store.change-stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${store.change-stream.heartbeat:15s}")
+    private Duration heartbeat;
+
+    // Буфер повтора в порядке получения; ids — для отсева повторов, которые лента присылает после переподключения
+    private final ArrayDeque<EntityChange> replay = new ArrayDeque<>();
+    private final Set<Long> replayIds = new HashSet<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("store.change-stream.clients", subscribers, Set::size)
+                .description("Клиенты, подписанные на поток изменений /changes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(Subscriber::complete);
+    }
+
+    // Догрузка буфера после старта, когда миграции уже применены
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadReplay() {
+
+        List<EntityChange> latest = jdbcTemplate.query(SELECT_LATEST, (rs, rowNum) -> new EntityChange(rs.getLong(1),
+                EntityType.valueOf(rs.getString(2)), rs.getObject(3, UUID.class), Operation.valueOf(rs.getString(4)),
+                rs.getObject(5, UUID.class), rs.getObject(6, OffsetDateTime.class)), replaySize);
+
+        synchronized (this) {
+            List<EntityChange> received = new ArrayList<>(replay);
+            replay.clear();
+            replayIds.clear();
+            for (int i = latest.size() - 1; i >= 0; i--) {
+                append(latest.get(i));
+            }
+            received.forEach(this::append);
+        }
+
+        log.info("Change stream: {} recent events loaded for replay", latest.size());
+
+    }
+
+    @EventListener
+    public void onChange(EntityChange change) {
+
+        if (!STREAMED.contains(change.entityType())) {
+            return;
+        }
+
+        // Под той же блокировкой, что и подписка: новый клиент получает событие либо из буфера, либо вживую
+        synchronized (this) {
+            if (!append(change)) {
+                return;
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+
+    }
+
+    // lastEventId — id последнего полученного клиентом события (заголовок Last-Event-ID), null — только новые
+    public SseEmitter subscribe(Long lastEventId, Set<EntityType> types) {
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, types.isEmpty() ? STREAMED : EnumSet.copyOf(types));
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(subscriber::complete);
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        synchronized (this) {
+            if (lastEventId != null) {
+                List<EntityChange> missed = missedSince(lastEventId);
+                if (missed == null) {
+                    subscriber.reset(replay.isEmpty() ? lastEventId : replay.getLast().id());
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        Thread.ofVirtual().name("change-stream-client").start(subscriber::run);
+
+        return emitter;
+
+    }
+
+    // События после lastEventId в порядке получения; null — места клиента в буфере нет.
+    // По номеру продолжать нельзя: id выдаётся до коммита, и событие с меньшим id может закоммититься позже —
+    // клиент его не получил бы
+    private List<EntityChange> missedSince(long lastEventId) {
+
+        if (!replayIds.contains(lastEventId)) {
+            return null;
+        }
+
+        // Точное место в буфере: всё, что получено после этого события
+        List<EntityChange> missed = new ArrayList<>();
+        Iterator<EntityChange> newestFirst = replay.descendingIterator();
+        while (newestFirst.hasNext()) {
+            EntityChange change = newestFirst.next();
+            if (change.id() == lastEventId) {
+                break;
+            }
+            missed.add(0, change);
+        }
+
+        return missed;
+
+    }
+
+    private boolean append(EntityChange change) {
+
+        if (!replayIds.add(change.id())) {
+            return false;
+        }
+
+        replay.addLast(change);
+
+        if (replay.size() > replaySize) {
+            replayIds.remove(replay.removeFirst().id());
+        }
+
+        return true;
+
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    // Клиент со своей очередью и потоком отправки: медленный клиент не задерживает ленту и других клиентов.
+    // Переполнение очереди закрывает поток — клиент переподключится с Last-Event-ID и догрузит пропущенное
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<EntityType> types;
+        private final BlockingQueue<EntityChange> queue = new ArrayBlockingQueue<>(replaySize);
+
+        private volatile Long resetTo;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<EntityType> types) {
+            this.emitter = emitter;
+            this.types = types;
+        }
+
+        void offer(EntityChange change) {
+
+            if (types.contains(change.entityType()) && !queue.offer(change)) {
+                overflowed = true;
+            }
+
+        }
+
+        void reset(long lastEventId) {
+            resetTo = lastEventId;
+        }
+
+        void run() {
+
+            try {
+                if (resetTo != null) {
+                    emitter.send(SseEmitter.event().id(Long.toString(resetTo)).name(RESET_EVENT).data(""));
+                }
+
+                while (!closed && !overflowed) {
+                    EntityChange change = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        // Комментарий SSE: держит соединение через прокси и выявляет отключившихся клиентов
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.id()))
+                                .name(change.entityType().name())
+                                .data(toDto(change), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change stream: client disconnected", e);
+                unsubscribe(this);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            complete();
+
+        }
+
+        void complete() {
+
+            unsubscribe(this);
+
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                log.debug("Change stream: emitter already completed", e);
+            }
+
+        }
+
+    }
+
+    private static ChangeEventDto toDto(EntityChange change) {
+        return new ChangeEventDto(change.id(), change.entityType(), change.entityId(), change.operation(),
+                change.createdAt());
+    }
+
+}
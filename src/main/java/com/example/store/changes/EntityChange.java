@@ -0,0 +1,17 @@
+package com.example.store.changes;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Событие ленты изменений: строка change_events, доставленная через NOTIFY или догруженная из таблицы.
+// Публикуется как событие Spring на каждом экземпляре, включая тот, что сделал изменение (origin)
+public record EntityChange(long id, EntityType entityType, UUID entityId, Operation operation, UUID origin,
+                           OffsetDateTime createdAt) {
+
+    // STORE_PRODUCTS — изменился ассортимент магазина entityId
+    public enum EntityType { STORE, STORE_PRODUCTS, PRODUCT, SUPPLIER }
+
+    // COPIED — магазин создан копированием другого; IMPORTED — загрузка через COPY, id строк не известны, entityId пуст
+    public enum Operation { CREATED, COPIED, UPDATED, DELETED, IMPORTED }
+
+}
@@ -0,0 +1,81 @@
+package com.example.store.changes;
+
+import com.example.store.config.CacheConfig;
+import com.example.store.index.LocationIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Приводит локальное состояние экземпляра (кэши, индекс адресов) в соответствие с изменениями,
+// сделанными другими экземплярами. Свои изменения уже учтены: @CacheEvict и LocationIndexListener
+@Component
+public class RemoteChangeHandler {
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @EventListener
+    public void onChange(EntityChange change) {
+
+        if (changeFeed.nodeId().equals(change.origin())) {
+            return;
+        }
+
+        UUID id = change.entityId();
+
+        switch (change.entityType()) {
+            case STORE -> {
+                evict(CacheConfig.STORES, id);
+                refreshStore(id);
+            }
+            case STORE_PRODUCTS -> refreshStore(id);
+            case PRODUCT -> {
+                if (id == null) {
+                    locationIndex.requestRebuild();
+                } else {
+                    locationIndex.refreshProduct(id);
+                }
+            }
+            case SUPPLIER -> evict(CacheConfig.SUPPLIERS, id);
+        }
+
+    }
+
+    private void refreshStore(UUID id) {
+
+        if (id == null) {
+            locationIndex.requestRebuild();
+        } else {
+            locationIndex.refreshStore(id);
+        }
+
+    }
+
+    // Без id (массовая загрузка) кэш очищается целиком
+    private void evict(String cacheName, UUID id) {
+
+        Cache cache = cacheManager.getCache(cacheName);
+
+        if (cache == null) {
+            return;
+        }
+
+        if (id == null) {
+            cache.clear();
+        } else {
+            cache.evict(id);
+        }
+
+    }
+
+}
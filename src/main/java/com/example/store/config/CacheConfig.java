@@ -0,0 +1,14 @@
+package com.example.store.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1) // Кэш оборачивает транзакцию: вытеснение происходит после коммита
+public class CacheConfig {
+
+    public static final String STORES = "stores";
+    public static final String SUPPLIERS = "suppliers";
+
+}
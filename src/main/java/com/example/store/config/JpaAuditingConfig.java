@@ -0,0 +1,70 @@
+package com.example.store.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Заполнение @LastModifiedDate временем начала транзакции по часам БД (LOCALTIMESTAMP), как у строк,
+// вставленных с DEFAULT LOCALTIMESTAMP, и у tombstones. Часы экземпляров расходятся, а синхронизация
+// (SyncService) сравнивает время изменений с началом ещё открытых транзакций в БД.
+// Время читается один раз на транзакцию. Точность — микросекунды, как у колонки TIMESTAMP,
+// поэтому updatedAt только что сохранённой сущности совпадает с прочитанным из БД (и ETag вместе с ним)
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class JpaAuditingConfig {
+
+    private static final String TRANSACTION_TIMESTAMP = "SELECT LOCALTIMESTAMP";
+
+    // Ключ, под которым время привязано к текущей транзакции
+    private static final Object TIMESTAMP_RESOURCE = new Object();
+
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider(JdbcTemplate jdbcTemplate) {
+        return () -> Optional.of(transactionTimestamp(jdbcTemplate));
+    }
+
+    private static LocalDateTime transactionTimestamp(JdbcTemplate jdbcTemplate) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return jdbcTemplate.queryForObject(TRANSACTION_TIMESTAMP, LocalDateTime.class);
+        }
+
+        LocalDateTime bound = (LocalDateTime) TransactionSynchronizationManager.getResource(TIMESTAMP_RESOURCE);
+
+        if (bound != null) {
+            return bound;
+        }
+
+        LocalDateTime timestamp = jdbcTemplate.queryForObject(TRANSACTION_TIMESTAMP, LocalDateTime.class);
+
+        // Время привязано к транзакции: вложенная REQUIRES_NEW получает своё, после завершения оно сбрасывается
+        TransactionSynchronizationManager.bindResource(TIMESTAMP_RESOURCE, timestamp);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(TIMESTAMP_RESOURCE);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TIMESTAMP_RESOURCE, timestamp);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TIMESTAMP_RESOURCE);
+            }
+        });
+
+        return timestamp;
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.store.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+// Неблокирующее чтение (профиль reactive) через собственный пул R2DBC-соединений рядом с пулом JDBC.
+// Пул не регистрируется бином ConnectionFactory: иначе автоконфигурация Spring Boot не создаёт DataSource,
+// и JPA-часть приложения остаётся без соединений
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${store.reactive.url}") String url,
+                                                 @Value("${spring.datasource.username}") String username,
+                                                 @Value("${spring.datasource.password}") String password,
+                                                 @Value("${store.reactive.pool-size:20}") int poolSize,
+                                                 @Value("${store.reactive.acquire-timeout:10s}") Duration acquireTimeout) {
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .maxAcquireTime(acquireTimeout)
+                .build());
+
+        return DatabaseClient.create(connectionPool);
+
+    }
+
+    @PreDestroy
+    void shutdown() {
+
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+
+    }
+
+}
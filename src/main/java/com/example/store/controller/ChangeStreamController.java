@@ -0,0 +1,42 @@
+package com.example.store.controller;
+
+import com.example.store.changes.ChangeStream;
+import com.example.store.changes.EntityChange.EntityType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeStreamController {
+
+    @Autowired
+    private ChangeStream changeStream;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений магазинов и поставщиков (Server-Sent Events)",
+    description = "Событие на каждое закоммиченное создание, копирование, изменение и удаление. " +
+            "Клиент сначала подписывается, затем один раз загружает список (/stores/all) и применяет события. " +
+            "При переподключении Last-Event-ID продолжает поток с пропущенного; событие reset — " +
+            "пропущенное недоступно, список нужно загрузить заново")
+    public SseEmitter streamChanges(
+            @Parameter(description = "Id последнего полученного события") @RequestHeader(value = "Last-Event-ID",
+                    required = false) Long lastEventId,
+            @Parameter(description = "Только эти типы: STORE, SUPPLIER; по умолчанию оба")
+            @RequestParam(required = false, defaultValue = "") Set<EntityType> types
+    ) {
+
+        return changeStream.subscribe(lastEventId, types);
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.example.store.controller;
+
+import com.example.store.exception.PreconditionFailedException;
+import com.example.store.repository.TableVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Условные запросы по updatedAt: строгий ETag и Last-Modified.
+// GET: если версия у клиента совпадает с версией в БД, отдаётся 304 без загрузки данных и сериализации тела.
+// no-cache: клиент и CDN хранят ответ, но перепроверяют его при каждом запросе.
+// PUT: If-Match с ETag из GET превращается в ожидаемую версию записи, несовпадение — 412
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    // Одна запись: версия читается отдельным запросом по первичному ключу, сама запись — только при несовпадении.
+    // ETag ответа строится из версии загруженной записи, а не из прочитанной до неё.
+    // Запись из кэша старше версии в БД (кэш заполнили параллельно с изменением) перечитывается через fresh,
+    // иначе клиент получал бы устаревший ETag и его If-Match не проходил бы до истечения кэша
+    static <T> ResponseEntity<T> entity(WebRequest request, Optional<LocalDateTime> version,
+                                        Supplier<T> cached, Supplier<T> fresh, Function<T, LocalDateTime> bodyVersion) {
+
+        if (version.isPresent() && notModified(request, etag(version.get()), lastModified(version.get()))) {
+            return withVersion(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.get()).build();
+        }
+
+        T loaded = cached.get();
+        LocalDateTime loadedVersion = bodyVersion.apply(loaded);
+
+        if (version.isPresent() && (loadedVersion == null || loadedVersion.isBefore(version.get()))) {
+            loaded = fresh.get();
+            loadedVersion = bodyVersion.apply(loaded);
+        }
+
+        if (loadedVersion == null) {
+            return ResponseEntity.ok(loaded);
+        }
+
+        return withVersion(ResponseEntity.ok(), loadedVersion).body(loaded);
+
+    }
+
+    // Список: ETag из числа строк, суммы версий и хеша строк. Last-Modified не отдаётся — удаление строки его не сдвигает
+    static <T> ResponseEntity<T> list(WebRequest request, TableVersion version, Supplier<T> body) {
+
+        String etag = "\"" + version.getCount() + "-" + version.getVersionSum() + "-"
+                + Long.toHexString(version.getRowHash()) + "\"";
+
+        if (notModified(request, etag, null)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body.get());
+
+    }
+
+    // Ответ на изменение: новая версия в ETag, чтобы следующий PUT можно было сделать без GET
+    static <T> ResponseEntity<T> updated(T body, LocalDateTime version) {
+
+        if (version == null) {
+            return ResponseEntity.ok(body);
+        }
+
+        return withVersion(ResponseEntity.ok(), version).body(body);
+
+    }
+
+    // Версия из If-Match. Пусто — без проверки (заголовка нет или «*»: запись просто должна существовать).
+    // Поддерживается один строгий ETag из ответа этого сервиса: слабый, чужой или список тегов
+    // не может совпасть с версией записи (строгое сравнение, RFC 9110, 13.1.1)
+    static Optional<LocalDateTime> expectedVersion(String ifMatch) {
+
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+
+        String tag = ifMatch.trim();
+
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+
+        try {
+            long micros = Long.parseLong(tag.substring(1, tag.length() - 1));
+            return Optional.of(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+        }
+
+    }
+
+    private static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder builder, LocalDateTime version) {
+        return builder.eTag(etag(version))
+                .lastModified(lastModified(version))
+                .cacheControl(CacheControl.noCache());
+    }
+
+    // If-None-Match важнее If-Modified-Since (RFC 9110, 13.1.3): при его наличии дата не проверяется
+    private static boolean notModified(WebRequest request, String etag, Instant lastModified) {
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+
+    }
+
+    private static String etag(LocalDateTime version) {
+        return "\"" + micros(version) + "\"";
+    }
+
+    private static long micros(LocalDateTime version) {
+        return version == null ? 0 : version.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + version.getNano() / 1_000;
+    }
+
+    // updatedAt хранится без часового пояса во времени сервера
+    private static Instant lastModified(LocalDateTime version) {
+        return version.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+}
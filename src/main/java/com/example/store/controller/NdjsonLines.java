@@ -0,0 +1,45 @@
+package com.example.store.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+// Поток объектов как NDJSON порциями строк. Spring MVC пишет и отправляет клиенту каждый элемент Flux отдельно:
+// по элементу на строку это тысячи мелких записей в сокет на ответ. Здесь элемент — готовый текст BATCH_SIZE строк
+// (элементы CharSequence MVC пишет как есть), а следующая порция запрашивается из БД после записи предыдущей
+final class NdjsonLines {
+
+    static final int BATCH_SIZE = 500;
+
+    private NdjsonLines() {
+    }
+
+    static <T> Flux<String> of(Flux<T> items, ObjectMapper objectMapper) {
+
+        ObjectWriter writer = objectMapper.writer();
+
+        return items.buffer(BATCH_SIZE)
+                .map(batch -> lines(batch, writer));
+
+    }
+
+    private static String lines(List<?> batch, ObjectWriter writer) {
+
+        StringBuilder lines = new StringBuilder(batch.size() * 128);
+
+        try {
+            for (Object item : batch) {
+                lines.append(writer.writeValueAsString(item)).append('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + batch.get(0).getClass().getSimpleName(), e);
+        }
+
+        return lines.toString();
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.store.controller;
+
+import com.example.store.service.ReactiveStoreService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+// Те же отчёты, что в StoreController, потоком NDJSON (профиль reactive) — выбираются заголовком
+// Accept: application/x-ndjson. Строки отдаются порциями (см. NdjsonLines): следующая читается из БД,
+// только когда предыдущая записана в ответ, а поток запроса не ждёт ни БД, ни клиента
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/stores", produces = MediaType.APPLICATION_NDJSON_VALUE)
+public class ReactiveStoreController {
+
+    @Autowired
+    private ReactiveStoreService reactiveStoreService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @GetMapping("/all")
+    @Operation(summary = "Все магазины потоком NDJSON")
+    public Flux<String> findAllStores() {
+
+        return NdjsonLines.of(reactiveStoreService.findAllStores(), objectMapper);
+
+    }
+
+    @GetMapping("/product/by-location")
+    @Operation(summary = "Товары во всех магазинах на указанной улице потоком NDJSON")
+    public Flux<String> findAllProductsByLocation(
+            @Parameter(description = "Название улицы") @RequestParam String location
+    ) {
+
+        return NdjsonLines.of(reactiveStoreService.findAllProductByLocation(location), objectMapper);
+
+    }
+
+    @GetMapping("/products/unique")
+    @Operation(summary = "Уникальные товары потоком NDJSON",
+    description = "Товары, которые продаются только в одном магазине")
+    public Flux<String> findUniqueProducts() {
+
+        return NdjsonLines.of(reactiveStoreService.findUniqueProducts(), objectMapper);
+
+    }
+
+}
@@ -1,18 +1,46 @@
 package com.example.store.controller;
 
 import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.BatchResponseDto;
+import com.example.store.dto.BulkImportResponseDto;
+import com.example.store.dto.CloneJobResponseDto;
+import com.example.store.dto.ProductImportResponseDto;
 import com.example.store.dto.ProductResponseDto;
+import com.example.store.dto.StorePageResponseDto;
 import com.example.store.dto.StoreResponseDto;
+import com.example.store.dto.SyncResponseDto;
 import com.example.store.request.ProductRequest;
 import com.example.store.request.StoreRequest;
+import com.example.store.service.BatchLoader;
+import com.example.store.service.ProductImportService;
+import com.example.store.service.SearchService;
+import com.example.store.service.StoreCloneService;
+import com.example.store.service.StoreImportService;
 import com.example.store.service.StoreService;
+import com.example.store.service.SyncService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +51,24 @@ public class StoreController {
     @Autowired
     private StoreService storeService;
 
+    @Autowired
+    private StoreImportService storeImportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private StoreCloneService storeCloneService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/POST")
     public ResponseEntity<StoreResponseDto> createStore(@Valid @RequestBody StoreRequest request) {
 
@@ -32,6 +78,17 @@ public class StoreController {
 
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Массовое создание магазинов",
+    description = "Принимает JSON-массив или NDJSON с запросами создания магазина, ошибки возвращаются по каждой записи")
+    public ResponseEntity<BulkImportResponseDto> importStores(HttpServletRequest request) throws IOException {
+
+        BulkImportResponseDto importResponse = storeImportService.importStores(request.getInputStream());
+
+        return ResponseEntity.ok(importResponse);
+
+    }
+
     @DeleteMapping("/DELETE/{id}")
     public ResponseEntity<Void> deleteStore(@PathVariable UUID id) {
 
@@ -42,47 +99,114 @@ public class StoreController {
     }
 
     @GetMapping("/GET/{id}")
-    public ResponseEntity<StoreResponseDto> findStoreById(@PathVariable UUID id) {
+    public ResponseEntity<StoreResponseDto> findStoreById(@PathVariable UUID id, WebRequest request) {
+
+        return ConditionalRequests.entity(request, storeService.findUpdatedAt(id),
+                () -> storeService.findById(id), () -> storeService.refreshById(id), StoreResponseDto::getUpdatedAt);
 
-        StoreResponseDto storeResponseDto = storeService.findById(id);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить магазины по списку идентификаторов",
+    description = "Принимает JSON-массив до 1000 идентификаторов, возвращает найденные магазины в порядке запроса и список ненайденных")
+    public ResponseEntity<BatchResponseDto<StoreResponseDto>> findStoresByIds(
+            @RequestBody @Size(max = BatchLoader.MAX_IDS) List<@NotNull UUID> ids
+    ) {
 
-        return ResponseEntity.ok(storeResponseDto);
+        return ResponseEntity.ok(storeService.findAllByIds(ids));
 
     }
 
     @PutMapping("/PUT/{id}")
-    public ResponseEntity<StoreResponseDto> updateStore(@PathVariable("id") UUID id, @Valid @RequestBody StoreRequest request) {
+    @Operation(summary = "Изменить магазин",
+    description = "С заголовком If-Match (ETag из GET) изменение применяется, только если магазин не меняли с тех пор, иначе 412")
+    public ResponseEntity<StoreResponseDto> updateStore(@PathVariable("id") UUID id, @Valid @RequestBody StoreRequest request,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        StoreResponseDto storeResponseDto = storeService.updateById(id, request);
+        StoreResponseDto storeResponseDto = storeService.updateById(id, request,
+                ConditionalRequests.expectedVersion(ifMatch).orElse(null));
 
-        return ResponseEntity.ok(storeResponseDto);
+        return ConditionalRequests.updated(storeResponseDto, storeResponseDto.getUpdatedAt());
 
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<AllStoresResponseDto>> findAllStores() {
+    public ResponseEntity<List<AllStoresResponseDto>> findAllStores(WebRequest request) {
 
-        List<AllStoresResponseDto> allStoresResponses = storeService.findAllStores();
-
-        return ResponseEntity.ok(allStoresResponses);
+        return ConditionalRequests.list(request, storeService.findAllStoresVersion(), storeService::findAllStores);
 
     }
 
     @GetMapping("/location/{location}")
-    public ResponseEntity<List<AllStoresResponseDto>> findStoreByLocation(@PathVariable String location) {
-
-        List<AllStoresResponseDto> allStoresResponses = storeService.findByLocation(location);
+    public ResponseEntity<List<AllStoresResponseDto>> findStoreByLocation(@PathVariable String location,
+                                                                          WebRequest request) {
 
-        return ResponseEntity.ok(allStoresResponses);
+        return ConditionalRequests.list(request, storeService.findByLocationVersion(location),
+                () -> storeService.findByLocation(location));
 
     }
 
     @GetMapping("/sorted")
-    public ResponseEntity<List<AllStoresResponseDto>> findAllStoresByName() {
+    public ResponseEntity<List<AllStoresResponseDto>> findAllStoresByName(WebRequest request) {
+
+        return ConditionalRequests.list(request, storeService.findAllStoresVersion(), storeService::findAllStoresByName);
+
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Страница магазинов, отсортированных по названию",
+    description = "Keyset-пагинация по (name, id): для следующей страницы передайте nextCursor из предыдущего ответа")
+    public ResponseEntity<StorePageResponseDto> findStoresPageByName(
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "50") int size
+    ) {
+
+        return ResponseEntity.ok(storeService.findStoresPageByName(cursor, size));
+
+    }
+
+    @GetMapping("/sync")
+    @Operation(summary = "Магазины, изменённые и удалённые после отметки синхронизации",
+    description = "Без since — полный список. Для продолжения передайте watermark из предыдущего ответа; " +
+            "при hasMore = true следующую часть запросите сразу, при fullResync = true очистите локальную копию")
+    public ResponseEntity<SyncResponseDto<StoreResponseDto>> syncStores(
+            @Parameter(description = "Отметка синхронизации из предыдущего ответа") @RequestParam(required = false) String since,
+            @Parameter(description = "Максимум изменений в ответе") @RequestParam(defaultValue = "500") int limit
+    ) {
+
+        return ResponseEntity.ok(syncService.syncStores(since, limit));
+
+    }
 
-        List<AllStoresResponseDto> allStoresResponses = storeService.findAllStoresByName();
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Все магазины, отсортированные по названию, потоком",
+    description = "Записи пишутся в ответ по мере чтения из курсора БД, не накапливаясь в памяти")
+    public ResponseEntity<StreamingResponseBody> streamAllStoresByName() {
 
-        return ResponseEntity.ok(allStoresResponses);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                storeService.streamAllStoresByName(store -> writeStore(generator, store));
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Поиск магазинов по названию и адресу",
+    description = "Полнотекстовый поиск с исправлением опечаток, результаты по убыванию релевантности")
+    public ResponseEntity<List<AllStoresResponseDto>> searchStores(
+            @Parameter(description = "Поисковый запрос") @RequestParam String query,
+            @Parameter(description = "Номер страницы, с 0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int size
+    ) {
+
+        return ResponseEntity.ok(searchService.searchStores(query, page, size));
 
     }
 
@@ -95,6 +219,31 @@ public class StoreController {
 
     }
 
+    @PostMapping("/{id}/clone")
+    @Operation(summary = "Клонировать магазин вместе с ассортиментом",
+    description = "Ставит в очередь задание создать указанное число копий магазина со всеми его товарами. " +
+            "Состояние задания — по адресу из заголовка Location")
+    public ResponseEntity<CloneJobResponseDto> cloneStore(
+            @PathVariable UUID id,
+            @Parameter(description = "Число копий") @RequestParam @Min(1) @Max(StoreCloneService.MAX_COPIES) int copies
+    ) {
+
+        CloneJobResponseDto job = storeCloneService.submit(id, copies);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/stores/clone-jobs/" + job.getId()))
+                .body(job);
+
+    }
+
+    @GetMapping("/clone-jobs/{jobId}")
+    @Operation(summary = "Состояние задания клонирования магазина")
+    public ResponseEntity<CloneJobResponseDto> findCloneJob(@PathVariable UUID jobId) {
+
+        return ResponseEntity.ok(storeCloneService.findJob(jobId));
+
+    }
+
     @GetMapping("/product/by-location")
     @Operation(summary = "Найти товары во всех магазинах на указанной улице",
     description = "Все товары в магазине на указанной улице")
@@ -108,6 +257,19 @@ public class StoreController {
 
     }
 
+    @GetMapping("/products/search")
+    @Operation(summary = "Поиск товаров по названию и категории",
+    description = "Полнотекстовый поиск с исправлением опечаток, результаты по убыванию релевантности")
+    public ResponseEntity<List<ProductResponseDto>> searchProducts(
+            @Parameter(description = "Поисковый запрос") @RequestParam String query,
+            @Parameter(description = "Номер страницы, с 0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int size
+    ) {
+
+        return ResponseEntity.ok(searchService.searchProducts(query, page, size));
+
+    }
+
     @GetMapping("/products/unique")
     @Operation(summary = "Найти уникальные товары", description = "Товары, которые продаются только в одном магазине")
     public ResponseEntity<List<ProductResponseDto>> findUniqueProducts() {
@@ -116,13 +278,54 @@ public class StoreController {
 
     }
 
+    @PostMapping(value = "/products/import", consumes = "text/csv")
+    @Operation(summary = "Загрузка каталога товаров из CSV",
+    description = "CSV с заголовком id,name,price,category,store_id; товары с существующим id обновляются. " +
+            "Строки без id и связи с несуществующими магазинами не загружаются и перечисляются в ответе")
+    public ResponseEntity<ProductImportResponseDto> importProductsCsv(HttpServletRequest request)
+            throws IOException, SQLException {
+
+        return ResponseEntity.ok(productImportService.importCsv(request.getInputStream()));
+
+    }
+
+    @PostMapping(value = "/products/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Загрузка каталога товаров из NDJSON",
+    description = "По одному объекту с полями id, name, price, category, store_id в строке")
+    public ResponseEntity<ProductImportResponseDto> importProductsNdjson(HttpServletRequest request)
+            throws IOException, SQLException {
+
+        return ResponseEntity.ok(productImportService.importNdjson(request.getInputStream()));
+
+    }
+
     @PostMapping("/product/{storeId}")
     public ResponseEntity<ProductResponseDto> createProduct(@PathVariable UUID storeId,
-                                                            @RequestBody ProductRequest request) {
+                                                            @Valid @RequestBody ProductRequest request) {
 
         return ResponseEntity.ok(storeService.createProduct(storeId, request));
 
     }
 
+    @PostMapping("/product")
+    @Operation(summary = "Создать товар сразу в нескольких магазинах",
+    description = "Товар и его связи со всеми магазинами сохраняются одной транзакцией")
+    public ResponseEntity<ProductResponseDto> createProductInStores(
+            @Parameter(description = "Идентификаторы магазинов") @RequestParam @NotEmpty List<@NotNull UUID> storeIds,
+            @Valid @RequestBody ProductRequest request
+    ) {
+
+        return ResponseEntity.ok(storeService.createProductInStores(storeIds, request));
+
+    }
+
+    private static void writeStore(JsonGenerator generator, AllStoresResponseDto store) {
+        try {
+            generator.writePOJO(store);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
 
@@ -1,12 +1,23 @@
 package com.example.store.controller;
 
+import com.example.store.dto.BatchResponseDto;
 import com.example.store.dto.SupplierResponseDto;
+import com.example.store.dto.SyncResponseDto;
 import com.example.store.request.SupplierRequest;
+import com.example.store.service.BatchLoader;
 import com.example.store.service.SupplierService;
+import com.example.store.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -16,6 +27,9 @@ public class SupplierController {
     @Autowired
     private SupplierService supplierService;
 
+    @Autowired
+    private SyncService syncService;
+
     @PostMapping("/POST")
     public ResponseEntity<SupplierResponseDto> createSupplier(@RequestBody SupplierRequest request) {
 
@@ -35,20 +49,46 @@ public class SupplierController {
     }
 
     @GetMapping("/GET/{id}")
-    public ResponseEntity<SupplierResponseDto> findSupplierById(@PathVariable UUID id) {
+    public ResponseEntity<SupplierResponseDto> findSupplierById(@PathVariable UUID id, WebRequest request) {
+
+        return ConditionalRequests.entity(request, supplierService.findUpdatedAt(id),
+                () -> supplierService.findById(id), () -> supplierService.refreshById(id),
+                SupplierResponseDto::getUpdatedAt);
+
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить поставщиков по списку идентификаторов",
+    description = "Принимает JSON-массив до 1000 идентификаторов, возвращает найденных поставщиков в порядке запроса и список ненайденных")
+    public ResponseEntity<BatchResponseDto<SupplierResponseDto>> findSuppliersByIds(
+            @RequestBody @Size(max = BatchLoader.MAX_IDS) List<@NotNull UUID> ids
+    ) {
+
+        return ResponseEntity.ok(supplierService.findAllByIds(ids));
+
+    }
 
-        SupplierResponseDto supplierResponseDto = supplierService.findById(id);
+    @GetMapping("/sync")
+    @Operation(summary = "Поставщики, изменённые и удалённые после отметки синхронизации",
+    description = "Без since — полный список. Для продолжения передайте watermark из предыдущего ответа; " +
+            "при hasMore = true следующую часть запросите сразу, при fullResync = true очистите локальную копию")
+    public ResponseEntity<SyncResponseDto<SupplierResponseDto>> syncSuppliers(
+            @Parameter(description = "Отметка синхронизации из предыдущего ответа") @RequestParam(required = false) String since,
+            @Parameter(description = "Максимум изменений в ответе") @RequestParam(defaultValue = "500") int limit
+    ) {
 
-        return ResponseEntity.ok(supplierResponseDto);
+        return ResponseEntity.ok(syncService.syncSuppliers(since, limit));
 
     }
 
     @PutMapping("/PUT/{id}")
-    public ResponseEntity<SupplierResponseDto> updateSupplier(@PathVariable("id") UUID id, @RequestBody SupplierRequest request) {
+    public ResponseEntity<SupplierResponseDto> updateSupplier(@PathVariable("id") UUID id, @RequestBody SupplierRequest request,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        SupplierResponseDto supplierResponseDto = supplierService.updateById(id, request);
+        SupplierResponseDto supplierResponseDto = supplierService.updateById(id, request,
+                ConditionalRequests.expectedVersion(ifMatch).orElse(null));
 
-        return ResponseEntity.ok(supplierResponseDto);
+        return ConditionalRequests.updated(supplierResponseDto, supplierResponseDto.getUpdatedAt());
 
     }
 
@@ -0,0 +1,23 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "DTO с результатом пакетного чтения по списку идентификаторов")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponseDto<T> {
+
+    @Schema(description = "Найденные записи в порядке запрошенных идентификаторов, повторы не дублируются")
+    private List<T> items;
+
+    @Schema(description = "Идентификаторы, для которых записей нет, в порядке запроса")
+    private List<UUID> missing;
+
+}
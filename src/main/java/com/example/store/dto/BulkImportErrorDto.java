@@ -0,0 +1,20 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "DTO с ошибкой загрузки одной записи")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportErrorDto {
+
+    @Schema(description = "Порядковый номер записи во входных данных, начиная с 0")
+    private int index;
+
+    @Schema(description = "Описание ошибки")
+    private String message;
+
+}
@@ -0,0 +1,22 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(description = "DTO с результатом массовой загрузки")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResponseDto {
+
+    @Schema(description = "Количество сохранённых записей")
+    private int imported;
+
+    @Schema(description = "Ошибки по отдельным записям")
+    private List<BulkImportErrorDto> errors;
+
+}
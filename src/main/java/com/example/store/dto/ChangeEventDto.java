@@ -0,0 +1,33 @@
+package com.example.store.dto;
+
+import com.example.store.changes.EntityChange;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Schema(description = "DTO события об изменении магазина или поставщика в потоке /changes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeEventDto {
+
+    @Schema(description = "Номер события, он же id события SSE для Last-Event-ID")
+    private long id;
+
+    @Schema(description = "Что изменилось: STORE или SUPPLIER")
+    private EntityChange.EntityType entityType;
+
+    @Schema(description = "Идентификатор магазина или поставщика, пуст для IMPORTED")
+    private UUID entityId;
+
+    @Schema(description = "Операция: CREATED, COPIED, UPDATED, DELETED или IMPORTED (перечитать список целиком)")
+    private EntityChange.Operation operation;
+
+    @Schema(description = "Время изменения")
+    private OffsetDateTime createdAt;
+
+}
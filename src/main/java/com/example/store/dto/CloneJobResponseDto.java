@@ -0,0 +1,49 @@
+package com.example.store.dto;
+
+import com.example.store.entity.StoreCloneJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "DTO с состоянием задания клонирования магазина")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CloneJobResponseDto {
+
+    @Schema(description = "Идентификатор задания")
+    private UUID id;
+
+    @Schema(description = "Идентификатор клонируемого магазина")
+    private UUID sourceStoreId;
+
+    @Schema(description = "Сколько копий создать")
+    private int copies;
+
+    @Schema(description = "Состояние: QUEUED, RUNNING, SUCCEEDED или FAILED")
+    private StoreCloneJob.Status status;
+
+    @Schema(description = "Идентификаторы созданных магазинов, после успешного завершения")
+    private List<UUID> storeIds;
+
+    @Schema(description = "Сколько связей магазин-товар скопировано во все копии")
+    private Long linksCopied;
+
+    @Schema(description = "Причина ошибки для FAILED")
+    private String error;
+
+    @Schema(description = "Время постановки задания в очередь")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Время начала выполнения")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Время завершения")
+    private LocalDateTime finishedAt;
+
+}
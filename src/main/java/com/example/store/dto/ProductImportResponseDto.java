@@ -0,0 +1,38 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(description = "DTO с результатом загрузки каталога товаров")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResponseDto {
+
+    @Schema(description = "Количество прочитанных строк")
+    private long rows;
+
+    @Schema(description = "Количество созданных или обновлённых товаров")
+    private long productsUpserted;
+
+    @Schema(description = "Количество созданных связей магазин-товар")
+    private long storeLinksCreated;
+
+    @Schema(description = "Время загрузки, мс")
+    private long elapsedMillis;
+
+    @Schema(description = "Скорость загрузки, строк в секунду")
+    private long rowsPerSecond;
+
+    @Schema(description = "Количество строк с ошибками: строка без id не загружается, " +
+            "для несуществующего магазина не создаётся связь")
+    private long rejectedRows;
+
+    @Schema(description = "Строки с ошибками, не больше 1000")
+    private List<BulkImportErrorDto> errors;
+
+}
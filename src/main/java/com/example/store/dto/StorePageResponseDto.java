@@ -0,0 +1,22 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(description = "DTO со страницей списка магазинов, отсортированных по названию")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorePageResponseDto {
+
+    @Schema(description = "Магазины текущей страницы")
+    private List<AllStoresResponseDto> stores;
+
+    @Schema(description = "Курсор следующей страницы, null если страница последняя")
+    private String nextCursor;
+
+}
@@ -5,13 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Schema(description = "DTO с основной информацией о магазине")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class StoreResponseDto { // TODO: унаследоваться от AllResponseDto
+public class StoreResponseDto implements Serializable { // TODO: унаследоваться от AllResponseDto
 
     @Schema(description = "Идентификатор магазина")
     private UUID id;
@@ -25,4 +27,7 @@ public class StoreResponseDto { // TODO: унаследоваться от AllRe
     @Schema(description = "Электронная почта магазина")
     private String email;
 
+    @Schema(description = "Дата последнего изменения магазина, из неё же строятся ETag и Last-Modified")
+    private LocalDateTime updatedAt;
+
 }
@@ -5,13 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Schema(description = "DTO с основной информацией для работы со списком всех поставщиков")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class SupplierResponseDto {
+public class SupplierResponseDto implements Serializable {
 
     @Schema(description = "Идентификатор поставщика")
     private UUID id;
@@ -31,4 +33,7 @@ public class SupplierResponseDto {
     @Schema(description = "Сайт поставщика")
     private String website;
 
+    @Schema(description = "Дата последнего изменения поставщика, из неё же строятся ETag и Last-Modified")
+    private LocalDateTime updatedAt;
+
 }
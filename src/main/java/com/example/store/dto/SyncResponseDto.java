@@ -0,0 +1,33 @@
+package com.example.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "DTO с изменениями после отметки синхронизации")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponseDto<T> {
+
+    @Schema(description = "Созданные и изменённые записи в порядке изменения, их нужно добавить или заменить по id")
+    private List<T> items;
+
+    @Schema(description = "Идентификаторы удалённых записей")
+    private List<UUID> deleted;
+
+    @Schema(description = "Отметка для следующего запроса (параметр since)")
+    private String watermark;
+
+    @Schema(description = "true — изменений больше, чем поместилось в ответ: следующую часть запросить сразу")
+    private boolean hasMore;
+
+    @Schema(description = "true — ответ начинает полный список заново: локальную копию нужно очистить, " +
+            "а затем применить эту и следующие части")
+    private boolean fullResync;
+
+}
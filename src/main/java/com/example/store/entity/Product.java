@@ -1,5 +1,7 @@
 package com.example.store.entity;
 
+import com.example.store.id.TimeOrderedUuid;
+import com.example.store.index.LocationIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -9,7 +11,6 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -19,11 +20,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
-@EnableJpaAuditing
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, LocationIndexListener.class})
 public class Product {
 
     @Id                                 // Ключ в базе данных
+    @TimeOrderedUuid                    // UUIDv7, если id не задан при создании
     @Column                             // Название колонки
     private UUID id;
 
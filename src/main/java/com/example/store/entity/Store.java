@@ -1,14 +1,18 @@
 package com.example.store.entity;
 
+import com.example.store.id.TimeOrderedUuid;
+import com.example.store.index.LocationIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -18,10 +22,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
-@EnableJpaAuditing
+@EntityListeners({AuditingEntityListener.class, LocationIndexListener.class})
 public class Store {
 
     @Id                                 // Ключ в базе данных
+    @TimeOrderedUuid                    // UUIDv7, если id не задан при создании
     @Column                             // Название колонки
     private UUID id;
 
@@ -38,4 +43,8 @@ public class Store {
     @Column
     private LocalDateTime updatedAt;
 
+    @Version                            // Номер версии для оптимистической блокировки, null — новая запись
+    @Column
+    private Long version;
+
 }
@@ -0,0 +1,64 @@
+package com.example.store.entity;
+
+import com.example.store.id.TimeOrderedUuid;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Entity(name="store_clone_jobs")
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoreCloneJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @TimeOrderedUuid
+    @Column
+    private UUID id;
+
+    @Column
+    private UUID sourceStoreId;
+
+    @Column
+    private int copies;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private Status status;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)       // Колонка UUID[]: идентификаторы созданных магазинов
+    @Column
+    private List<UUID> storeIds;
+
+    @Column
+    private Long linksCopied;
+
+    @Column
+    private String error;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @Column                             // Продлевается экземпляром, который держит задание
+    private LocalDateTime heartbeatAt;
+
+}
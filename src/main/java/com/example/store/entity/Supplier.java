@@ -1,16 +1,17 @@
 package com.example.store.entity;
 
+import com.example.store.id.TimeOrderedUuid;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -20,11 +21,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
-@EnableJpaAuditing
 @EntityListeners(AuditingEntityListener.class)
 public class Supplier {
 
     @Id                                 // Ключ в базе данных
+    @TimeOrderedUuid                    // UUIDv7, если id не задан при создании
     @Column                             // Название колонки
     private UUID id;
 
@@ -47,4 +48,8 @@ public class Supplier {
     @Column
     private LocalDateTime updatedAt;
 
+    @Version                            // Номер версии для оптимистической блокировки, null — новая запись
+    @Column
+    private Long version;
+
 }
@@ -1,26 +1,27 @@
-//package com.example.store.exception;
-//
-//public class ErrorResponse {
-//    private String code;
-//    private String message;
-//    private int status;
-//
-//    public ErrorResponse(String code, String message, int status) {
-//        this.code = code;
-//        this.message = message;
-//        this.status = status;
-//    }
-//
-//    // Геттеры
-//    public String getCode() {
-//        return code;
-//    }
-//
-//    public String getMessage() {
-//        return message;
-//    }
-//
-//    public int getStatus() {
-//        return status;
-//    }
-//}
\ No newline at end of file
+package com.example.store.exception;
+
+// Тело ответа с ошибкой для всего API: code — стабильный код для клиента, message — описание для человека
+public class ErrorResponse {
+    private String code;
+    private String message;
+    private int status;
+
+    public ErrorResponse(String code, String message, int status) {
+        this.code = code;
+        this.message = message;
+        this.status = status;
+    }
+
+    // Геттеры
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
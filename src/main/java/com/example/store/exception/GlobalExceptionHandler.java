@@ -1,93 +1,153 @@
-//package com.example.store.exception;
-//
-//import org.springframework.dao.DataIntegrityViolationException;
-//import org.springframework.http.HttpStatus;
-//import org.springframework.http.ResponseEntity;
-//import org.springframework.web.bind.MethodArgumentNotValidException;
-//import org.springframework.web.bind.annotation.ExceptionHandler;
-//import org.springframework.web.bind.annotation.RestControllerAdvice;
-//import org.springframework.web.context.request.RequestAttributes;
-//import org.springframework.web.context.request.RequestContextHolder;
-//import org.springframework.web.context.request.ServletRequestAttributes;
-//
-//import jakarta.servlet.http.HttpServletRequest;
-//import java.util.List;
-//import java.util.stream.Collectors;
-//
-//@RestControllerAdvice
-//public class GlobalExceptionHandler {
-//
-//    // Проверка, является ли запрос от Swagger
-//    private boolean isSwaggerRequest() {
-//        try {
-//            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
-//            if (requestAttributes instanceof ServletRequestAttributes) {
-//                HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
-//                String requestUri = request.getRequestURI();
-//                return requestUri != null &&
-//                        (requestUri.contains("/v3/api-docs") ||
-//                                requestUri.contains("/swagger-ui") ||
-//                                requestUri.contains("/api-docs"));
-//            }
-//        } catch (Exception e) {
-//            // Игнорируем ошибки при проверке
-//        }
-//        return false;
-//    }
-//
-//    // Обработка нарушения уникальности
-//    @ExceptionHandler(DataIntegrityViolationException.class)
-//    public ResponseEntity<ErrorResponse> handleDuplicateKeyException(DataIntegrityViolationException ex) {
-//        if (isSwaggerRequest()) {
-//            return null; // пропускаем обработку для Swagger
-//        }
-//
-//        if (ex.getMessage().contains("email") || ex.getMessage().contains("duplicate")) {
-//            ErrorResponse error = new ErrorResponse(
-//                    "CONFLICT",
-//                    "Email already exists",
-//                    HttpStatus.CONFLICT.value()
-//            );
-//            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
-//        }
-//        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
-//                new ErrorResponse("INTERNAL_ERROR", ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value())
-//        );
-//    }
-//
-//    // Обработка ошибок валидации @Valid
-//    @ExceptionHandler(MethodArgumentNotValidException.class)
-//    public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-//        if (isSwaggerRequest()) {
-//            return null; // пропускаем обработку для Swagger
-//        }
-//
-//        List<String> errors = ex.getBindingResult()
-//                .getFieldErrors()
-//                .stream()
-//                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-//                .collect(Collectors.toList());
-//
-//        ErrorResponse error = new ErrorResponse(
-//                "VALIDATION_ERROR",
-//                "Validation failed: " + String.join(", ", errors),
-//                HttpStatus.BAD_REQUEST.value()
-//        );
-//        return ResponseEntity.badRequest().body(error);
-//    }
-//
-//    // Общая обработка всех исключений
-//    @ExceptionHandler(Exception.class)
-//    public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex) {
-//        if (isSwaggerRequest()) {
-//            return null; // пропускаем обработку для Swagger
-//        }
-//
-//        ErrorResponse error = new ErrorResponse(
-//                "INTERNAL_ERROR",
-//                "An unexpected error occurred",
-//                HttpStatus.INTERNAL_SERVER_ERROR.value()
-//        );
-//        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-//    }
-//}
\ No newline at end of file
+package com.example.store.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+// Все ошибки API отдаются телом ErrorResponse. Стандартные исключения Spring MVC (неверный JSON, тип параметра,
+// неподдерживаемый метод) обрабатывает базовый класс — здесь их ответ только переводится в ErrorResponse
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    // Обработка нарушения уникальности
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateKeyException(DataIntegrityViolationException ex) {
+
+        // Текст исключения содержит SQL и имена ограничений: клиенту — только код, подробности — в лог
+        log.warn("Data integrity violation", ex);
+
+        String message = String.valueOf(ex.getMostSpecificCause().getMessage());
+        if (PersistenceErrors.UNIQUE_VIOLATION.equals(PersistenceErrors.sqlState(ex)) && message.contains("email")) {
+            return error(HttpStatus.CONFLICT, "CONFLICT", "Email already exists");
+        }
+        return error(HttpStatus.CONFLICT, "CONFLICT", PersistenceErrors.describe(ex));
+
+    }
+
+    // Обработка ошибок валидации @Valid
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(@NonNull MethodArgumentNotValidException ex,
+                                                                  @NonNull HttpHeaders headers,
+                                                                  @NonNull HttpStatusCode status,
+                                                                  @NonNull WebRequest request) {
+
+        List<String> errors = ex.getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.toList());
+
+        return validationError(errors);
+
+    }
+
+    // Ограничения на параметрах метода контроллера (@Min, @NotEmpty, @Valid у элементов списка)
+    @Override
+    protected ResponseEntity<Object> handleHandlerMethodValidationException(
+            @NonNull HandlerMethodValidationException ex, @NonNull HttpHeaders headers,
+            @NonNull HttpStatusCode status, @NonNull WebRequest request) {
+
+        List<String> errors = ex.getAllErrors()
+                .stream()
+                .map(error -> error.getDefaultMessage())
+                .collect(Collectors.toList());
+
+        return validationError(errors);
+
+    }
+
+    // Ограничения на параметрах методов @Validated-сервисов
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
+
+        List<String> errors = ex.getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.toList());
+
+        return validationError(errors);
+
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", ex.getMessage());
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(NoSuchElementException ex) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", ex.getMessage());
+    }
+
+    // Изменение с If-Match на устаревшую версию
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        return error(HttpStatus.PRECONDITION_FAILED, "PRECONDITION_FAILED", ex.getMessage());
+    }
+
+    // Изменение без If-Match столкнулось с параллельным UPDATE той же записи, его можно повторить
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return error(HttpStatus.CONFLICT, "CONCURRENT_UPDATE", "Concurrent update, retry the request");
+    }
+
+    @ExceptionHandler(JobRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleJobRejected(JobRejectedException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, "JOB_REJECTED", ex.getMessage());
+    }
+
+    // Общая обработка всех исключений
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex) {
+
+        log.error("Unhandled exception", ex);
+
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "An unexpected error occurred");
+
+    }
+
+    // Ответы базового класса (ProblemDetail) в том же виде, что и остальные ошибки
+    @Override
+    protected ResponseEntity<Object> createResponseEntity(Object body, @NonNull HttpHeaders headers,
+                                                          @NonNull HttpStatusCode statusCode,
+                                                          @NonNull WebRequest request) {
+
+        String message = body instanceof ProblemDetail problem ? problem.getDetail() : null;
+        HttpStatus status = HttpStatus.resolve(statusCode.value());
+        String code = status == null ? "ERROR" : status.name();
+
+        return ResponseEntity.status(statusCode).headers(headers)
+                .body(new ErrorResponse(code, message, statusCode.value()));
+
+    }
+
+    private static ResponseEntity<Object> validationError(List<String> errors) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("VALIDATION_ERROR",
+                "Validation failed: " + String.join(", ", errors), HttpStatus.BAD_REQUEST.value()));
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String code, String message) {
+        return ResponseEntity.status(status).body(new ErrorResponse(code, message, status.value()));
+    }
+
+}
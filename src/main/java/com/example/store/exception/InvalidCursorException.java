@@ -0,0 +1,10 @@
+package com.example.store.exception;
+
+// Курсор постраничного обхода или отметка синхронизации не разбирается: клиент передал не то, что получил в ответе
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.example.store.exception;
+
+// Очередь фоновых заданий заполнена: задание не принято, запрос можно повторить позже (503)
+public class JobRejectedException extends RuntimeException {
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.example.store.exception;
+
+import java.sql.SQLException;
+
+// Сообщения об ошибках сохранения для клиента. Текст исключений JDBC и Hibernate содержит SQL, имена
+// ограничений и значения — наружу отдаётся только вид ошибки по SQLSTATE, подробности пишутся в лог
+public final class PersistenceErrors {
+
+    public static final String UNIQUE_VIOLATION = "23505";
+
+    private PersistenceErrors() {
+    }
+
+    public static String describe(Throwable e) {
+
+        String state = sqlState(e);
+
+        if (state == null) {
+            return "Record could not be saved";
+        }
+        if (state.equals(UNIQUE_VIOLATION)) {
+            return "Duplicate value";
+        }
+        if (state.startsWith("23")) {
+            return "Constraint violation";
+        }
+        if (state.startsWith("22")) {
+            return "Invalid value";
+        }
+
+        return "Record could not be saved";
+
+    }
+
+    // SQLSTATE первого SQLException в цепочке причин, null — ошибка не из БД
+    public static String sqlState(Throwable e) {
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return sqlException.getSQLState();
+            }
+        }
+
+        return null;
+
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.example.store.exception;
+
+// Версия записи не совпала с версией из If-Match: запись изменили после того, как клиент её прочитал
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
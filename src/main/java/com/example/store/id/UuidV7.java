@@ -0,0 +1,50 @@
+package com.example.store.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UUID версии 7 (RFC 9562): 48 бит времени в миллисекундах, 12-битный счётчик внутри миллисекунды, 62 случайных бита.
+// Ключи растут со временем, поэтому вставки идут в правый край B-дерева первичного ключа, а не в случайные страницы.
+public final class UuidV7 {
+
+    private static final int COUNTER_BITS = 12;
+
+    // Последнее выданное значение: (миллисекунды << 12) | счётчик
+    private static final AtomicLong LAST_TIMESTAMP = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+
+        long timestamp = nextTimestamp();
+
+        long mostSigBits = (timestamp >>> COUNTER_BITS) << 16      // unix_ts_ms
+                | 0x7000L                                           // версия 7
+                | (timestamp & 0xFFFL);                             // rand_a — монотонный счётчик
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL
+                | 0x8000000000000000L;                              // вариант RFC 9562
+
+        return new UUID(mostSigBits, leastSigBits);
+
+    }
+
+    // Без блокировок: CAS до успеха. При исчерпании счётчика значение переходит в следующую миллисекунду,
+    // поэтому порядок сохраняется и при отставании системных часов.
+    private static long nextTimestamp() {
+
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+
+        while (true) {
+            long last = LAST_TIMESTAMP.get();
+            long next = Math.max(now, last + 1);
+
+            if (LAST_TIMESTAMP.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+
+    }
+
+}
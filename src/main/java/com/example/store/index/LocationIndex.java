@@ -0,0 +1,580 @@
+package com.example.store.index;
+
+import com.example.store.dto.ProductResponseDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Инвертированный индекс адресов в памяти процесса: триграмма адреса → магазины (RoaringBitmap),
+// магазин → адрес и товары (отсортированный int[]), товар → данные для ответа.
+// Совпадение — то же, что у запроса в БД (location LIKE '%улица%'): подстрока адреса с учётом регистра.
+// Триграммы дают кандидатов, подстрока проверяется по адресу, поэтому ответ не зависит от того,
+// ответил индекс или БД.
+// Порядок ответа — по цене и названию в порядке кодовых точек, как COLLATE "C" в запросах к БД.
+// Магазины и товары хранятся под плотными номерами (UuidOrdinals), а не UUID. Номера удалённых записей
+// не переиспользуются: когда их становится много, индекс перестраивается в фоне и номера уплотняются.
+// Строится при старте из stores / store_products / products и обновляется после коммита транзакций,
+// изменивших эти таблицы через JPA (LocationIndexListener). Включается свойством store.location-index.enabled.
+// Перестройка загружает новые структуры рядом с текущими (на это время памяти нужно вдвое больше)
+// и подменяет их под короткой блокировкой записи: поиск и обновления всё это время работают с текущими
+@Component
+public class LocationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationIndex.class);
+
+    private static final int[] NO_PRODUCTS = new int[0];
+    private static final int TRIGRAM = 3;
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String SELECT_STORE_LOCATION = "SELECT location FROM stores WHERE id = ?";
+    private static final String SELECT_STORE_PRODUCTS = "SELECT product_id FROM store_products WHERE store_id = ?";
+    private static final String SELECT_PRODUCT = "SELECT name, price, category FROM products WHERE id = ?";
+
+    // Как ORDER BY p.price, p.name COLLATE "C", p.id: UTF-8 в "C" сравнивается побайтно, то есть по кодовым
+    // точкам (String.compareTo сравнивает UTF-16 и расходится с ним на символах вне BMP)
+    private static final Comparator<ProductResponseDto> BY_PRICE_AND_NAME =
+            Comparator.comparing(ProductResponseDto::getPrice)
+                    .thenComparing(ProductResponseDto::getName, LocationIndex::compareCodePoints)
+                    .thenComparing(product -> product.getId().toString());
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${store.location-index.enabled:false}")
+    private boolean enabled;
+
+    // Сколько номеров удалённых магазинов и товаров накопить до уплотняющей перестройки
+    // (и не меньше четверти всех номеров)
+    @Value("${store.location-index.compact-after-removals:100000}")
+    private int compactAfterRemovals;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Под lock: текущие структуры и изменения, пришедшие во время перестройки (null — перестройки нет).
+    // Изменения задают состояние записи целиком, поэтому их повтор на загруженном снимке безопасен
+    private Structures current = new Structures();
+    private List<Consumer<Structures>> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    // Перестройки по запросу идут в фоне по одной, запросы, пришедшие во время перестройки, сливаются в одну
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("location-index-rebuild").daemon().factory());
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate snapshotTransaction;
+
+    @PostConstruct
+    void init() {
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+
+        // Три таблицы читаются из одного снимка БД: всегда в своей транзакции, даже если вызывающий код
+        // выполняется внутри чужой (в том числе уже закоммиченной, из afterCommit)
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+
+        if (enabled) {
+            rebuild();
+        }
+
+    }
+
+    // Полная перестройка. Перестройки выполняются по одной; до первой построенной версии поиск уходит в БД
+    public synchronized void rebuild() {
+
+        long start = System.nanoTime();
+        Structures rebuilt = new Structures();
+        int replayed;
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            snapshotTransaction.executeWithoutResult(status -> load(rebuilt));
+
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild.forEach(change -> change.accept(rebuilt));
+                replayed = changedDuringRebuild.size();
+                current = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Location index built in {} ms: {} stores, {} trigrams, {} products, ~{} KB, {} changes replayed",
+                (System.nanoTime() - start) / 1_000_000, rebuilt.stores.size(), rebuilt.storesByTrigram.size(),
+                rebuilt.products.size(), sizeInBytes() / 1024, replayed);
+
+    }
+
+    // После массовой загрузки в обход JPA (COPY) индекс перестраивается в фоне после коммита:
+    // загрузка занимает секунды и не должна задерживать ответ на запрос загрузки
+    public void rebuildAfterCommit() {
+
+        if (enabled) {
+            afterCommit(this::requestRebuild);
+        }
+
+    }
+
+    // Перестройка в фоне, например после массовой загрузки на другом экземпляре
+    public void requestRebuild() {
+
+        if (enabled && rebuildRequested.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildRequested.set(false);
+                rebuild();
+            });
+        }
+
+    }
+
+    // Перечитывает из БД адрес и ассортимент одного магазина (изменение сделано другим экземпляром)
+    public void refreshStore(UUID storeId) {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<String> location = jdbcTemplate.queryForList(SELECT_STORE_LOCATION, String.class, storeId);
+        List<UUID> productIds = jdbcTemplate.queryForList(SELECT_STORE_PRODUCTS, UUID.class, storeId);
+
+        if (location.isEmpty()) {
+            removeStore(storeId);
+            return;
+        }
+
+        write(index -> {
+            int store = index.stores.add(storeId);
+            index.indexStore(store, location.get(0));
+            index.storeProducts.set(store, NO_PRODUCTS);
+            productIds.forEach(productId -> index.link(store, index.products.add(productId)));
+        });
+
+    }
+
+    // Перечитывает из БД один товар (изменение сделано другим экземпляром)
+    public void refreshProduct(UUID productId) {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<ProductResponseDto> found = jdbcTemplate.query(SELECT_PRODUCT, (rs, rowNum) ->
+                new ProductResponseDto(productId, rs.getString(1), rs.getBigDecimal(2), rs.getString(3)), productId);
+
+        if (found.isEmpty()) {
+            removeProduct(productId);
+        } else {
+            write(index -> index.indexProduct(index.products.add(productId), found.get(0)));
+        }
+
+    }
+
+    // Товары всех магазинов, в адресе которых есть подстрока street, по цене и названию. Пусто (Optional.empty()),
+    // если ответ надо искать в БД: индекс выключен или ещё не построен, либо запрос короче триграммы
+    public Optional<List<ProductResponseDto>> findProductsByLocation(String street) {
+
+        if (!ready || street.length() < TRIGRAM) {
+            return Optional.empty();
+        }
+
+        long[] trigrams = trigrams(street);
+
+        // Блокировка записи держится недолго: одно изменение или подмена структур после перестройки
+        lock.readLock().lock();
+        try {
+            Structures index = current;
+            RoaringBitmap[] withTrigrams = new RoaringBitmap[trigrams.length];
+
+            for (int i = 0; i < trigrams.length; i++) {
+                withTrigrams[i] = index.storesByTrigram.get(trigrams[i]);
+                if (withTrigrams[i] == null) {
+                    return Optional.of(List.of());
+                }
+            }
+
+            // Кандидаты содержат все триграммы запроса, но не обязательно подряд: подстроку проверяем по адресу
+            RoaringBitmap matchedProducts = new RoaringBitmap();
+            FastAggregation.and(withTrigrams).forEach((int store) -> {
+                if (index.storeLocations.get(store).contains(street)) {
+                    matchedProducts.add(index.storeProducts.get(store));
+                }
+            });
+
+            List<ProductResponseDto> result = new ArrayList<>(matchedProducts.getCardinality());
+            matchedProducts.forEach((int product) -> {
+                ProductResponseDto data = product < index.productData.size() ? index.productData.get(product) : null;
+                if (data != null) {
+                    result.add(new ProductResponseDto(data.getId(), data.getName(), data.getPrice(), data.getCategory()));
+                }
+            });
+            result.sort(BY_PRICE_AND_NAME);
+
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    public void putStore(UUID storeId, String location) {
+        write(index -> index.indexStore(index.stores.add(storeId), location));
+    }
+
+    public void removeStore(UUID storeId) {
+        write(index -> index.removeStore(storeId));
+    }
+
+    public void putProduct(UUID productId, String name, BigDecimal price, String category) {
+        write(index -> index.indexProduct(index.products.add(productId),
+                new ProductResponseDto(productId, name, price, category)));
+    }
+
+    public void removeProduct(UUID productId) {
+        write(index -> index.removeProduct(productId));
+    }
+
+    public void addLink(UUID storeId, UUID productId) {
+        write(index -> index.link(index.stores.add(storeId), index.products.add(productId)));
+    }
+
+    public void removeLink(UUID storeId, UUID productId) {
+        write(index -> index.unlink(storeId, productId));
+    }
+
+    // Изменение применяется после коммита текущей транзакции (откат его отменяет) или сразу, если транзакции нет
+    public void afterCommit(Runnable change) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+
+    }
+
+    // Оценка объёма структур индекса без учёта заголовков объектов JVM
+    public long sizeInBytes() {
+
+        lock.readLock().lock();
+        try {
+            return current.sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    private void load(Structures index) {
+
+        jdbcTemplate.query("SELECT id, location FROM stores", rs -> {
+            index.indexStore(index.stores.add(rs.getObject(1, UUID.class)), rs.getString(2));
+        });
+
+        jdbcTemplate.query("SELECT id, name, price, category FROM products", rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            index.indexProduct(index.products.add(id), new ProductResponseDto(id, rs.getString(2),
+                    rs.getBigDecimal(3), rs.getString(4)));
+        });
+
+        jdbcTemplate.query("SELECT store_id, product_id FROM store_products", rs -> {
+            index.link(index.stores.add(rs.getObject(1, UUID.class)), index.products.add(rs.getObject(2, UUID.class)));
+        });
+
+    }
+
+    private void write(Consumer<Structures> change) {
+
+        if (!enabled) {
+            return;
+        }
+
+        boolean compact;
+
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+            compact = current.removed() >= Math.max(compactAfterRemovals, current.ordinals() / 4);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Перестройка загружает только живые записи: номера удалённых освобождаются
+        if (compact && ready) {
+            requestRebuild();
+        }
+
+    }
+
+    // Номера удалённых магазинов и товаров, ещё занимающие место в структурах
+    int removedOrdinals() {
+
+        lock.readLock().lock();
+        try {
+            return current.removed();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    static int compareCodePoints(String a, String b) {
+
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+
+        return Integer.compare(a.length() - i, b.length() - j);
+
+    }
+
+    // Различные триграммы строки: три символа в одном long
+    private static long[] trigrams(String value) {
+
+        long[] trigrams = new long[Math.max(value.length() - TRIGRAM + 1, 0)];
+
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = (long) value.charAt(i) << 32 | (long) value.charAt(i + 1) << 16 | value.charAt(i + 2);
+        }
+
+        return Arrays.stream(trigrams).distinct().toArray();
+
+    }
+
+    // Структуры одной версии индекса
+    private static final class Structures {
+
+        private final UuidOrdinals stores = new UuidOrdinals();
+        private final UuidOrdinals products = new UuidOrdinals();
+        private final Map<Long, RoaringBitmap> storesByTrigram = new HashMap<>();
+        private final List<String> storeLocations = new ArrayList<>();
+        private final List<int[]> storeProducts = new ArrayList<>();
+        private final List<ProductResponseDto> productData = new ArrayList<>();
+
+        // Номера удалённых магазинов и товаров: сколько места освободит перестройка
+        private final RoaringBitmap removedStores = new RoaringBitmap();
+        private final RoaringBitmap removedProducts = new RoaringBitmap();
+
+        // location == null — магазин удалён
+        private void indexStore(int store, String location) {
+
+            ensureStore(store);
+
+            String previous = storeLocations.get(store);
+
+            if (previous != null) {
+                for (long trigram : trigrams(previous)) {
+                    RoaringBitmap withTrigram = storesByTrigram.get(trigram);
+                    withTrigram.remove(store);
+                    if (withTrigram.isEmpty()) {
+                        storesByTrigram.remove(trigram);
+                    }
+                }
+            }
+
+            if (location != null) {
+                for (long trigram : trigrams(location)) {
+                    storesByTrigram.computeIfAbsent(trigram, key -> new RoaringBitmap()).add(store);
+                }
+            }
+
+            storeLocations.set(store, location);
+
+            if (location == null) {
+                removedStores.add(store);
+            } else {
+                removedStores.remove(store);
+            }
+
+        }
+
+        private void removeStore(UUID storeId) {
+
+            int store = stores.ordinalOf(storeId);
+
+            if (store >= 0) {
+                indexStore(store, null);
+                storeProducts.set(store, NO_PRODUCTS);
+            }
+
+        }
+
+        private void indexProduct(int product, ProductResponseDto data) {
+
+            while (productData.size() <= product) {
+                productData.add(null);
+            }
+
+            productData.set(product, data);
+            removedProducts.remove(product);
+
+        }
+
+        private void removeProduct(UUID productId) {
+
+            int product = products.ordinalOf(productId);
+
+            if (product >= 0) {
+                productData.set(product, null);
+                removedProducts.add(product);
+            }
+
+        }
+
+        private void link(int store, int product) {
+
+            ensureStore(store);
+
+            int[] current = storeProducts.get(store);
+            int position = Arrays.binarySearch(current, product);
+
+            if (position < 0) {
+                int insertAt = -position - 1;
+                int[] updated = new int[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                updated[insertAt] = product;
+                System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                storeProducts.set(store, updated);
+            }
+
+        }
+
+        private void unlink(UUID storeId, UUID productId) {
+
+            int store = stores.ordinalOf(storeId);
+            int product = products.ordinalOf(productId);
+
+            if (store >= 0 && product >= 0) {
+                int[] current = storeProducts.get(store);
+                int position = Arrays.binarySearch(current, product);
+                if (position >= 0) {
+                    int[] updated = new int[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, position);
+                    System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+                    storeProducts.set(store, updated);
+                }
+            }
+
+        }
+
+        private void ensureStore(int store) {
+
+            while (storeLocations.size() <= store) {
+                storeLocations.add(null);
+                storeProducts.add(NO_PRODUCTS);
+            }
+
+        }
+
+        private int removed() {
+            return removedStores.getCardinality() + removedProducts.getCardinality();
+        }
+
+        private int ordinals() {
+            return stores.size() + products.size();
+        }
+
+        private long sizeInBytes() {
+
+            long bytes = stores.sizeInBytes() + products.sizeInBytes();
+            for (RoaringBitmap bitmap : storesByTrigram.values()) {
+                bytes += bitmap.getSizeInBytes();
+            }
+            for (String location : storeLocations) {
+                bytes += location == null ? 0 : (long) location.length() * Character.BYTES;
+            }
+            for (int[] linked : storeProducts) {
+                bytes += (long) linked.length * Integer.BYTES;
+            }
+
+            return bytes;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.example.store.index;
+
+import com.example.store.entity.Product;
+import com.example.store.entity.Store;
+import com.example.store.entity.StoreProduct;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Обновляет LocationIndex при сохранении и удалении магазинов, товаров и связей через JPA.
+// Значения копируются в момент события, а в индекс попадают только после коммита транзакции
+public class LocationIndexListener {
+
+    // Индекс запрашивается лениво: слушатель создаётся вместе с EntityManagerFactory, раньше остальных бинов
+    @Autowired
+    private ObjectProvider<LocationIndex> locationIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+
+        LocationIndex index = locationIndex.getObject();
+
+        if (!index.isEnabled()) {
+            return;
+        }
+
+        if (entity instanceof Store store) {
+            UUID id = store.getId();
+            String location = store.getLocation();
+            index.afterCommit(() -> index.putStore(id, location));
+        } else if (entity instanceof Product product) {
+            UUID id = product.getId();
+            String name = product.getName();
+            BigDecimal price = product.getPrice();
+            String category = product.getCategory();
+            index.afterCommit(() -> index.putProduct(id, name, price, category));
+        } else if (entity instanceof StoreProduct link) {
+            UUID storeId = link.getStoreId();
+            UUID productId = link.getProductId();
+            index.afterCommit(() -> index.addLink(storeId, productId));
+        }
+
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+
+        LocationIndex index = locationIndex.getObject();
+
+        if (!index.isEnabled()) {
+            return;
+        }
+
+        if (entity instanceof Store store) {
+            UUID id = store.getId();
+            index.afterCommit(() -> index.removeStore(id));
+        } else if (entity instanceof Product product) {
+            UUID id = product.getId();
+            index.afterCommit(() -> index.removeProduct(id));
+        } else if (entity instanceof StoreProduct link) {
+            UUID storeId = link.getStoreId();
+            UUID productId = link.getProductId();
+            index.afterCommit(() -> index.removeLink(storeId, productId));
+        }
+
+    }
+
+}
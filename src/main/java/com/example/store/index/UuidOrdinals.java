@@ -0,0 +1,123 @@
+package com.example.store.index;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Компактная нумерация UUID: каждому идентификатору — плотный порядковый номер (int) и обратно.
+// Открытая адресация по примитивным массивам без объектов-обёрток: ~24 байта на запись
+// против ~90 у HashMap<UUID, Integer>. Номера не переиспользуются: удалённая запись остаётся в таблице
+// до перестройки индекса, которая заводит нумерацию заново (см. LocationIndex.write).
+final class UuidOrdinals {
+
+    private static final int EMPTY = -1;
+
+    private long[] mostSigBits = new long[16];
+    private long[] leastSigBits = new long[16];
+    private int[] slots = emptySlots(32);
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int ordinalOf(UUID id) {
+
+        int mask = slots.length - 1;
+
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int ordinal = slots[slot];
+            if (ordinal == EMPTY) {
+                return EMPTY;
+            }
+            if (mostSigBits[ordinal] == id.getMostSignificantBits() && leastSigBits[ordinal] == id.getLeastSignificantBits()) {
+                return ordinal;
+            }
+        }
+
+    }
+
+    // Номер существующего идентификатора или новый номер, если идентификатор встречается впервые
+    int add(UUID id) {
+
+        int existing = ordinalOf(id);
+        if (existing != EMPTY) {
+            return existing;
+        }
+
+        if (size == mostSigBits.length) {
+            mostSigBits = Arrays.copyOf(mostSigBits, size * 2);
+            leastSigBits = Arrays.copyOf(leastSigBits, size * 2);
+        }
+
+        int ordinal = size++;
+        mostSigBits[ordinal] = id.getMostSignificantBits();
+        leastSigBits[ordinal] = id.getLeastSignificantBits();
+
+        // Заполненность таблицы не выше 50%: цепочки пробирования остаются короткими
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insert(ordinal);
+        }
+
+        return ordinal;
+
+    }
+
+    UUID uuidOf(int ordinal) {
+        return new UUID(mostSigBits[ordinal], leastSigBits[ordinal]);
+    }
+
+    long sizeInBytes() {
+        return (mostSigBits.length + leastSigBits.length) * (long) Long.BYTES + slots.length * (long) Integer.BYTES;
+    }
+
+    private void rehash(int capacity) {
+
+        slots = emptySlots(capacity);
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            insert(ordinal);
+        }
+
+    }
+
+    private void insert(int ordinal) {
+
+        int mask = slots.length - 1;
+        int slot = hash(mostSigBits[ordinal], leastSigBits[ordinal]) & mask;
+
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+
+        slots[slot] = ordinal;
+
+    }
+
+    private static int hash(UUID id) {
+        return hash(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    // Перемешивание битов (finalizer из MurmurHash3): у UUIDv7 старшие биты почти одинаковы
+    private static int hash(long mostSigBits, long leastSigBits) {
+
+        long h = mostSigBits ^ leastSigBits;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+
+        return (int) h;
+
+    }
+
+    private static int[] emptySlots(int capacity) {
+
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+
+        return slots;
+
+    }
+
+}
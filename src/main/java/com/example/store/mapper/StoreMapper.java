@@ -1,17 +1,20 @@
 package com.example.store.mapper;
 
 import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.CloneJobResponseDto;
 import com.example.store.dto.ProductResponseDto;
 import com.example.store.dto.StoreResponseDto;
 import com.example.store.entity.Product;
 import com.example.store.entity.Store;
+import com.example.store.entity.StoreCloneJob;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StoreMapper {
 
     public StoreResponseDto mapToStoreResponseDto(Store store) {
-        return new StoreResponseDto(store.getId(), store.getName(), store.getLocation(), store.getEmail());
+        return new StoreResponseDto(store.getId(), store.getName(), store.getLocation(), store.getEmail(),
+                store.getUpdatedAt());
     }
 
     public AllStoresResponseDto mapToAllStoresResponseDto(Store store) {
@@ -22,4 +25,10 @@ public class StoreMapper {
         return new ProductResponseDto(product.getId(), product.getName(),
                 product.getPrice(), product.getCategory());
     }
+
+    public CloneJobResponseDto mapToCloneJobResponseDto(StoreCloneJob job) {
+        return new CloneJobResponseDto(job.getId(), job.getSourceStoreId(), job.getCopies(), job.getStatus(),
+                job.getStoreIds(), job.getLinksCopied(), job.getError(), job.getCreatedAt(), job.getStartedAt(),
+                job.getFinishedAt());
+    }
 }
@@ -9,7 +9,7 @@ public class SupplierMapper {
 
     public SupplierResponseDto mapToSupplierResponseDto(Supplier supplier) {
         return new SupplierResponseDto(supplier.getId(), supplier.getName(), supplier.getEmail(),
-                supplier.getPhone(), supplier.getAddress(), supplier.getWebsite());
+                supplier.getPhone(), supplier.getAddress(), supplier.getWebsite(), supplier.getUpdatedAt());
     }
 
 }
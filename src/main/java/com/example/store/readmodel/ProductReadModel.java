@@ -0,0 +1,231 @@
+package com.example.store.readmodel;
+
+import com.example.store.changes.EntityChange;
+import com.example.store.changes.EntityChange.EntityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Витрины location_products и product_store_counts (материализованные представления, V1.11.0)
+// для отчётов по товарам. Postgres не обновляет их сам: изменение, сделанное любым экземпляром,
+// приходит по ленте изменений после коммита, и витрины пересчитываются REFRESH ... CONCURRENTLY
+// (чтение при этом не блокируется) не позже чем через refresh-interval. Изменения других экземпляров
+// учитываются так же, как свои: иначе staleness() видела бы только свои записи. Одновременный пересчёт
+// с нескольких экземпляров исключает advisory-блокировка. Без событий (лента выключена) витрины
+// пересчитываются раз в max-age.
+// Пока изменения не отражены дольше max-staleness, отчёты считаются по исходным таблицам
+@Component
+public class ProductReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductReadModel.class);
+
+    // Ключ advisory-блокировки: одновременно витрины пересчитывает только один экземпляр
+    private static final long REFRESH_LOCK = 0x5245_4144_4d4f_444cL;
+
+    private static final String[] VIEWS = {"location_products", "product_store_counts"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${store.read-model.enabled:true}")
+    private boolean enabled;
+
+    @Value("${store.read-model.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    @Value("${store.read-model.max-age:1h}")
+    private Duration maxAge;
+
+    @Value("${store.read-model.max-staleness:5m}")
+    private Duration maxStaleness;
+
+    // Время самого раннего изменения, ещё не отражённого в витринах, null — всё отражено
+    private final AtomicReference<OffsetDateTime> pendingSince = new AtomicReference<>();
+    private volatile long refreshedAtNanos;
+
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("read-model-refresh").daemon().factory());
+
+    private TransactionTemplate refreshTransaction;
+    private Timer refreshTimer;
+    private Counter viewReads;
+    private Counter liveReads;
+
+    @PostConstruct
+    void init() {
+
+        refreshTransaction = new TransactionTemplate(transactionManager);
+        refreshedAtNanos = System.nanoTime();
+
+        refreshTimer = Timer.builder("store.read-model.refresh")
+                .description("Время пересчёта витрин товаров")
+                .register(meterRegistry);
+        Gauge.builder("store.read-model.staleness", this, model -> model.staleness().toMillis() / 1000.0)
+                .description("Сколько самое раннее изменение ждёт отражения в витринах")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        viewReads = readsCounter("view");
+        liveReads = readsCounter("live");
+
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // Состояние витрин при старте неизвестно: первый пересчёт — через refresh-interval
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        if (!enabled) {
+            return;
+        }
+
+        pendingSince.compareAndSet(null, OffsetDateTime.now());
+        refreshExecutor.scheduleWithFixedDelay(this::refreshIfDue, refreshInterval.toMillis(),
+                refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+    }
+
+    @EventListener
+    public void onChange(EntityChange change) {
+
+        if (!enabled || change.entityType() == EntityType.SUPPLIER) {
+            return;
+        }
+
+        pendingSince.accumulateAndGet(change.createdAt(), ProductReadModel::earliest);
+
+    }
+
+    // Можно ли отвечать из витрин; заодно считает, откуда отвечали
+    public boolean isUsable() {
+
+        boolean usable = enabled && staleness().compareTo(maxStaleness) <= 0;
+
+        (usable ? viewReads : liveReads).increment();
+
+        return usable;
+
+    }
+
+    public Duration staleness() {
+
+        OffsetDateTime pending = pendingSince.get();
+
+        if (pending == null) {
+            return Duration.ZERO;
+        }
+
+        Duration staleness = Duration.between(pending, OffsetDateTime.now());
+
+        return staleness.isNegative() ? Duration.ZERO : staleness;
+
+    }
+
+    // Пересчёт обеих витрин. false — витрины сейчас пересчитывает другой экземпляр, изменения остаются в ожидании
+    public synchronized boolean refresh() {
+
+        // События приходят после коммита, поэтому всё, что пришло до начала REFRESH, в него попадёт.
+        // Пришедшее во время пересчёта остаётся в ожидании до следующего
+        OffsetDateTime reflected = pendingSince.getAndSet(null);
+        long start = System.nanoTime();
+
+        boolean refreshed;
+        try {
+            refreshed = Boolean.TRUE.equals(refreshTransaction.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                        Boolean.class, REFRESH_LOCK))) {
+                    return false;
+                }
+                for (String view : VIEWS) {
+                    // Статистика витрины после пересчёта: без неё следующий REFRESH CONCURRENTLY, который
+                    // сравнивает старое содержимое с новым, и запросы к витрине планируются по устаревшему числу строк
+                    jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + view);
+                    jdbcTemplate.execute("ANALYZE " + view);
+                }
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            restorePending(reflected);
+            throw e;
+        }
+
+        if (!refreshed) {
+            restorePending(reflected);
+            return false;
+        }
+
+        refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        refreshedAtNanos = start;
+
+        return true;
+
+    }
+
+    private void refreshIfDue() {
+
+        boolean aged = System.nanoTime() - refreshedAtNanos > maxAge.toNanos();
+
+        if (pendingSince.get() == null && !aged) {
+            return;
+        }
+
+        // Ошибка пересчёта не должна останавливать расписание
+        try {
+            if (!refresh()) {
+                log.debug("Read model: refresh is running on another instance, retrying in {}", refreshInterval);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Read model: refresh failed, retrying in {}", refreshInterval, e);
+        }
+
+    }
+
+    private void restorePending(OffsetDateTime pending) {
+
+        if (pending != null) {
+            pendingSince.accumulateAndGet(pending, ProductReadModel::earliest);
+        }
+
+    }
+
+    private static OffsetDateTime earliest(OffsetDateTime current, OffsetDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private Counter readsCounter(String source) {
+        return Counter.builder("store.read-model.reads")
+                .description("Ответы отчётов по товарам: из витрин (view) или по исходным таблицам (live)")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+}
@@ -2,13 +2,49 @@ package com.example.store.repository;
 
 import com.example.store.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
 
+    // Все товары магазинов, в адресе которых встречается подстрока (один запрос вместо N+1).
+    // Порядок названий — COLLATE "C", как у индекса адресов в памяти (LocationIndex): ответ не зависит
+    // от того, какой путь ответил, и от collation базы
+    @Query(value = "SELECT p.* FROM products p WHERE p.id IN (" +
+            "SELECT sp.product_id FROM store_products sp JOIN stores s ON s.id = sp.store_id " +
+            "WHERE s.location LIKE :pattern ESCAPE '\\') " +
+            "ORDER BY p.price, p.name COLLATE \"C\", p.id",
+            nativeQuery = true)
+    List<Product> findAllByStoreLocationLike(String pattern);
 
+    // Товары, которые продаются только в одном магазине (один GROUP BY вместо COUNT на каждый товар)
+    @Query("SELECT p FROM products p WHERE p.id IN (" +
+            "SELECT sp.productId FROM store_products sp GROUP BY sp.productId HAVING COUNT(sp) = 1)")
+    List<Product> findUniqueProducts();
+
+    // То же по витрине location_products (см. ProductReadModel): товары адреса уже собраны в массив
+    @Query(value = "SELECT p.* FROM products p WHERE p.id IN (" +
+            "SELECT unnest(lp.product_ids) FROM location_products lp WHERE lp.location LIKE :pattern ESCAPE '\\') " +
+            "ORDER BY p.price, p.name COLLATE \"C\", p.id",
+            nativeQuery = true)
+    List<Product> findAllByStoreLocationLikeFromReadModel(String pattern);
+
+    // То же по витрине product_store_counts: число магазинов на товар уже посчитано
+    @Query(value = "SELECT p.* FROM products p JOIN product_store_counts c ON c.product_id = p.id " +
+            "WHERE c.store_count = 1",
+            nativeQuery = true)
+    List<Product> findUniqueProductsFromReadModel();
+
+    // Полнотекстовый поиск по названию и категории с исправлением опечаток (см. StoreRepository.search)
+    @Query(value = SearchQueries.CORRECTED_QUERY +
+            ", candidates AS (SELECT p.* FROM products p, corrected c WHERE p.search_vector @@ c.q LIMIT :maxCandidates) " +
+            "SELECT p.* FROM candidates p, corrected c " +
+            "ORDER BY ts_rank(p.search_vector, c.q) DESC, p.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Product> search(String query, int maxCandidates, int limit, int offset);
 
 }
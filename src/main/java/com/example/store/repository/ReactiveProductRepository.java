@@ -0,0 +1,65 @@
+package com.example.store.repository;
+
+import com.example.store.entity.Product;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Запросы ProductRepository для отчётов по товарам через R2DBC (профиль reactive), с тем же SQL и порядком строк
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    public Flux<Product> findAllByStoreLocationLike(String pattern) {
+        return query("SELECT p.* FROM products p WHERE p.id IN (" +
+                "SELECT sp.product_id FROM store_products sp JOIN stores s ON s.id = sp.store_id " +
+                "WHERE s.location LIKE :pattern ESCAPE '\\') " +
+                "ORDER BY p.price, p.name COLLATE \"C\", p.id", pattern);
+    }
+
+    public Flux<Product> findUniqueProducts() {
+        return query("SELECT p.* FROM products p WHERE p.id IN (" +
+                "SELECT sp.product_id FROM store_products sp GROUP BY sp.product_id HAVING COUNT(*) = 1)", null);
+    }
+
+    // По витрине location_products (см. ProductReadModel)
+    public Flux<Product> findAllByStoreLocationLikeFromReadModel(String pattern) {
+        return query("SELECT p.* FROM products p WHERE p.id IN (" +
+                "SELECT unnest(lp.product_ids) FROM location_products lp WHERE lp.location LIKE :pattern ESCAPE '\\') " +
+                "ORDER BY p.price, p.name COLLATE \"C\", p.id", pattern);
+    }
+
+    // По витрине product_store_counts
+    public Flux<Product> findUniqueProductsFromReadModel() {
+        return query("SELECT p.* FROM products p JOIN product_store_counts c ON c.product_id = p.id " +
+                "WHERE c.store_count = 1", null);
+    }
+
+    private Flux<Product> query(String sql, String pattern) {
+
+        DatabaseClient.GenericExecuteSpec spec = reactiveDatabaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(ReactiveStoreRepository.FETCH_SIZE));
+
+        if (pattern != null) {
+            spec = spec.bind("pattern", pattern);
+        }
+
+        return spec.map(ReactiveProductRepository::mapProduct).all();
+
+    }
+
+    private static Product mapProduct(Readable row) {
+        return new Product(row.get("id", UUID.class), row.get("name", String.class),
+                row.get("price", BigDecimal.class), row.get("category", String.class));
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.store.repository;
+
+import com.example.store.entity.Store;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Чтение магазинов через R2DBC (профиль reactive). Строки читаются курсором порциями по FETCH_SIZE
+// по мере того, как подписчик их запрашивает: медленный клиент не заставляет держать весь результат в памяти
+@Repository
+@Profile("reactive")
+public class ReactiveStoreRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    public Flux<Store> findAll() {
+        return reactiveDatabaseClient.sql("SELECT id, name, location, email, updated_at, version FROM stores")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveStoreRepository::mapStore)
+                .all();
+    }
+
+    private static Store mapStore(Readable row) {
+        return new Store(row.get("id", UUID.class), row.get("name", String.class), row.get("location", String.class),
+                row.get("email", String.class), row.get("updated_at", LocalDateTime.class), row.get("version", Long.class));
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.store.repository;
+
+// Общая часть поисковых запросов по магазинам и товарам.
+// Из запроса убираются сокращения адресов (search_text), каждое слово длиннее двух букв заменяется
+// ближайшим по триграммам словом из словаря search_words (исправление опечаток), результат — tsquery в CTE corrected.
+final class SearchQueries {
+
+    static final String CORRECTED_QUERY = "WITH query_words AS (" +
+            "SELECT w, n FROM regexp_split_to_table(lower(search_text(:query)), '\\W+') WITH ORDINALITY AS t(w, n) " +
+            "WHERE w <> ''), " +
+            "corrected AS (" +
+            "SELECT plainto_tsquery('russian', string_agg(coalesce(" +
+            "(SELECT sw.word FROM search_words sw WHERE length(qw.w) > 2 AND sw.word % qw.w " +
+            "ORDER BY sw.word <-> qw.w LIMIT 1), qw.w), ' ' ORDER BY qw.n)) AS q " +
+            "FROM query_words qw) ";
+
+    private SearchQueries() {
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.store.repository;
+
+import com.example.store.entity.StoreCloneJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface StoreCloneJobRepository extends JpaRepository<StoreCloneJob, UUID> {
+
+}
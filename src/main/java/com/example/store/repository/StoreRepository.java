@@ -1,18 +1,65 @@
 package com.example.store.repository;
 
 import com.example.store.entity.Store;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface StoreRepository extends JpaRepository<Store, UUID> {
+
+    // Версия списка для ETag, см. TableVersion
+    String TABLE_VERSION = "SELECT count(*) AS \"count\", coalesce(sum(version), 0) AS \"versionSum\", " +
+            "coalesce(bit_xor(hashtextextended(id::text || ':' || version, 0)), 0) AS \"rowHash\" FROM stores";
+
     List<Store> findByLocation(String location);
 
+    // Только дата изменения, без загрузки сущности: для проверки ETag
+    @Query("SELECT s.updatedAt FROM stores s WHERE s.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(UUID id);
+
+    @Query(value = TABLE_VERSION, nativeQuery = true)
+    TableVersion findTableVersion();
+
+    @Query(value = TABLE_VERSION + " WHERE location = :location", nativeQuery = true)
+    TableVersion findTableVersionByLocation(String location);
+
     @Query("SELECT COUNT(sp) FROM store_products sp WHERE sp.productId = :id")
     int countStoresByProductId(UUID id);
 
+    // Keyset-пагинация по (name, id): первая страница
+    @Query(value = "SELECT * FROM stores ORDER BY name, id LIMIT :limit", nativeQuery = true)
+    List<Store> findFirstPageByName(int limit);
+
+    // Keyset-пагинация по (name, id): страница после указанного магазина
+    @Query(value = "SELECT * FROM stores WHERE (name, id) > (:name, :id) ORDER BY name, id LIMIT :limit",
+            nativeQuery = true)
+    List<Store> findNextPageByName(String name, UUID id, int limit);
+
+    // Потоковое чтение через курсор JDBC, строки подгружаются порциями по 500
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s FROM stores s ORDER BY s.name, s.id")
+    Stream<Store> streamAllByName();
+
+    // Полнотекстовый поиск по названию и адресу с исправлением опечаток.
+    // Ранжируются не более maxCandidates совпадений: для очень общих запросов порядок приблизительный,
+    // зато время не растёт с числом совпавших строк
+    @Query(value = SearchQueries.CORRECTED_QUERY +
+            ", candidates AS (SELECT s.* FROM stores s, corrected c WHERE s.search_vector @@ c.q LIMIT :maxCandidates) " +
+            "SELECT s.* FROM candidates s, corrected c " +
+            "ORDER BY ts_rank(s.search_vector, c.q) DESC, s.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Store> search(String query, int maxCandidates, int limit, int offset);
+
 }
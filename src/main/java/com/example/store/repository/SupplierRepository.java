@@ -2,12 +2,19 @@ package com.example.store.repository;
 
 import com.example.store.entity.Supplier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, UUID> {
     List<Supplier> findByAddress(String address);
+
+    // Только дата изменения, без загрузки сущности: для проверки ETag
+    @Query("SELECT s.updatedAt FROM suppliers s WHERE s.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(UUID id);
 }
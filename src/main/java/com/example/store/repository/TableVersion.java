@@ -0,0 +1,15 @@
+package com.example.store.repository;
+
+// Версия набора строк для ETag списка: число строк, сумма версий и XOR хешей (id, version).
+// Каждое изменение через JPA увеличивает version, вставка и удаление меняют число строк и хеш.
+// Время изменения не годится: транзакция, начатая раньше, может закоммитить более старый updatedAt
+// уже после выдачи ETag, а часы экземпляров не совпадают
+public interface TableVersion {
+
+    long getCount();
+
+    long getVersionSum();
+
+    long getRowHash();
+
+}
@@ -0,0 +1,38 @@
+package com.example.store.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Schema(description = "Строка каталога товаров для массовой загрузки")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportRequest {
+
+    @Schema(description = "Идентификатор товара (обязателен), при совпадении товар обновляется")
+    @JsonProperty("id")
+    private UUID id;
+
+    @Schema(description = "Наименование товара")
+    @JsonProperty("name")
+    private String name;
+
+    @Schema(description = "Цена товара")
+    @JsonProperty("price")
+    private BigDecimal price;
+
+    @Schema(description = "Категория товара")
+    @JsonProperty("category")
+    private String category;
+
+    @Schema(description = "Идентификатор существующего магазина, в котором продаётся товар")
+    @JsonProperty("store_id")
+    private UUID storeId;
+
+}
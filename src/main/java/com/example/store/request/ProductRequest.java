@@ -3,6 +3,7 @@ package com.example.store.request;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,7 +23,7 @@ import java.math.BigDecimal;
 
         @Schema
         @JsonProperty("Цена товара")
-        @NotBlank
+        @NotNull
         private BigDecimal price;
 
 }
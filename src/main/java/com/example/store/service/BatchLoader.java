@@ -0,0 +1,55 @@
+package com.example.store.service;
+
+import com.example.store.dto.BatchResponseDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Пакетное чтение по списку идентификаторов: запросы WHERE id IN (...) частями вместо запроса на каждый id
+public final class BatchLoader {
+
+    // Наибольшее число идентификаторов в одном пакетном запросе к API
+    public static final int MAX_IDS = 1000;
+
+    // Размер части IN-списка: далеко от предела bind-параметров драйвера (32767),
+    // а с in_clause_parameter_padding даёт не больше 512 параметров и немного разных планов
+    static final int CHUNK_SIZE = 500;
+
+    private BatchLoader() {
+    }
+
+    static <E, T> BatchResponseDto<T> load(List<UUID> ids, Function<List<UUID>, List<E>> query,
+                                           Function<E, UUID> idOf, Function<E, T> mapper) {
+
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<UUID, T> found = new HashMap<>(distinctIds.size() * 2);
+
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size()));
+            for (E entity : query.apply(chunk)) {
+                found.put(idOf.apply(entity), mapper.apply(entity));
+            }
+        }
+
+        // Ответ в порядке запроса: база возвращает строки IN-списка в произвольном порядке
+        List<T> items = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        return new BatchResponseDto<>(items, missing);
+
+    }
+
+}
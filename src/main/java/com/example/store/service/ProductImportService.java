@@ -0,0 +1,243 @@
+package com.example.store.service;
+
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.dto.BulkImportErrorDto;
+import com.example.store.dto.ProductImportResponseDto;
+import com.example.store.index.LocationIndex;
+import com.example.store.request.ProductImportRequest;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Загрузка каталога товаров через COPY во временную таблицу и upsert из неё в products и store_products.
+// Вход читается потоком, память не зависит от размера файла. Загрузка выполняется одной транзакцией.
+// Товар определяется только своим id: строки без id и связи с несуществующими магазинами не загружаются,
+// а перечисляются в ответе — повторная загрузка того же файла ничего не дублирует.
+@Service
+@Timed("service.calls")
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Наибольшее число отклонённых строк, перечисляемых в ответе; остальные только считаются
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    // row_index — номер строки данных (без заголовка), начиная с 0: COPY заполняет его по порядку
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE products_staging (" +
+            "row_index BIGINT GENERATED ALWAYS AS IDENTITY (MINVALUE 0 START WITH 0), " +
+            "id UUID, name TEXT, price NUMERIC(10, 2), category TEXT, store_id UUID) ON COMMIT DROP";
+
+    private static final String COPY_CSV = "COPY products_staging (id, name, price, category, store_id) " +
+            "FROM STDIN WITH (FORMAT csv, HEADER true)";
+
+    private static final String COPY_ROWS = "COPY products_staging (id, name, price, category, store_id) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String SELECT_REJECTED = "SELECT s.row_index, " +
+            "CASE WHEN s.id IS NULL THEN 'id is required' ELSE 'Store not found: ' || s.store_id END, " +
+            "count(*) OVER () FROM products_staging s " +
+            "WHERE s.id IS NULL OR (s.store_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM stores WHERE id = s.store_id)) " +
+            "ORDER BY s.row_index LIMIT " + MAX_REPORTED_ERRORS;
+
+    private static final String UPSERT_PRODUCTS = "INSERT INTO products (id, name, price, category) " +
+            "SELECT DISTINCT ON (id) id, name, price, category FROM products_staging WHERE id IS NOT NULL ORDER BY id " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, price = EXCLUDED.price, category = EXCLUDED.category";
+
+    // Связи только с существующими магазинами, как и при создании товара через API
+    private static final String INSERT_STORE_LINKS = "INSERT INTO store_products (id, store_id, product_id) " +
+            "SELECT gen_random_uuid(), st.store_id, st.id " +
+            "FROM (SELECT DISTINCT s.store_id, s.id FROM products_staging s JOIN stores ON stores.id = s.store_id " +
+            "WHERE s.id IS NOT NULL) st " +
+            "ON CONFLICT (store_id, product_id) DO NOTHING";
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${store.import.progress-interval:100000}")
+    private long progressInterval;
+
+    // CSV с заголовком: id,name,price,category,store_id (store_id может быть пустым)
+    @Transactional(rollbackFor = Exception.class)
+    public ProductImportResponseDto importCsv(InputStream body) throws SQLException, IOException {
+
+        long start = System.nanoTime();
+        Connection connection = stagingConnection();
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_CSV);
+        long rows;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long lines = 0;
+            int read;
+
+            while ((read = body.read(buffer)) != -1) {
+                copyIn.writeToCopy(buffer, 0, read);
+                lines = reportProgress(lines, countLines(buffer, read), start);
+            }
+
+            rows = copyIn.endCopy();
+        } finally {
+            cancelIfActive(copyIn);
+        }
+
+        return upsertFromStaging(connection, rows, start);
+
+    }
+
+    // NDJSON: по одному объекту ProductImportRequest в строке
+    @Transactional(rollbackFor = Exception.class)
+    public ProductImportResponseDto importNdjson(InputStream body) throws SQLException, IOException {
+
+        long start = System.nanoTime();
+        Connection connection = stagingConnection();
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_ROWS);
+        long rows;
+        try (MappingIterator<ProductImportRequest> requests = objectMapper.readerFor(ProductImportRequest.class)
+                .readValues(body)) {
+            long lines = 0;
+
+            while (requests.hasNextValue()) {
+                byte[] line = toCsvLine(requests.nextValue()).getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(line, 0, line.length);
+                lines = reportProgress(lines, 1, start);
+            }
+
+            rows = copyIn.endCopy();
+        } finally {
+            cancelIfActive(copyIn);
+        }
+
+        return upsertFromStaging(connection, rows, start);
+
+    }
+
+    private Connection stagingConnection() throws SQLException {
+
+        // Соединение текущей транзакции: временная таблица живёт до её завершения
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        return connection;
+
+    }
+
+    private ProductImportResponseDto upsertFromStaging(Connection connection, long rows, long start)
+            throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+
+            List<BulkImportErrorDto> errors = new ArrayList<>();
+            long rejected = 0;
+            try (ResultSet rs = statement.executeQuery(SELECT_REJECTED)) {
+                while (rs.next()) {
+                    errors.add(new BulkImportErrorDto(rs.getInt(1), rs.getString(2)));
+                    rejected = rs.getLong(3);
+                }
+            }
+
+            long products = statement.executeUpdate(UPSERT_PRODUCTS);
+            long links = statement.executeUpdate(INSERT_STORE_LINKS);
+
+            // COPY идёт в обход JPA: индекс адресов в памяти перестраивается целиком после коммита,
+            // на остальных экземплярах — по событию из ленты изменений
+            locationIndex.rebuildAfterCommit();
+            changeFeed.recordImport(EntityType.PRODUCT);
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            log.info("Product import finished: {} rows, {} products upserted, {} store links created, " +
+                    "{} rows rejected in {} ms", rows, products, links, rejected, elapsedMillis);
+
+            return new ProductImportResponseDto(rows, products, links, elapsedMillis, rowsPerSecond(rows, start),
+                    rejected, errors);
+
+        }
+
+    }
+
+    private long reportProgress(long before, long added, long start) {
+
+        long after = before + added;
+
+        if (after / progressInterval > before / progressInterval) {
+            log.info("Product import: {} rows copied, {} rows/sec", after, rowsPerSecond(after, start));
+        }
+
+        return after;
+
+    }
+
+    // COPY прерван ошибкой чтения входа: отменяем его, транзакция будет откачена
+    private static void cancelIfActive(CopyIn copyIn) throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private static long rowsPerSecond(long rows, long start) {
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        return rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    private static int countLines(byte[] buffer, int length) {
+
+        int lines = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                lines++;
+            }
+        }
+
+        return lines;
+
+    }
+
+    private static String toCsvLine(ProductImportRequest row) {
+        return csvValue(row.getId()) + ',' + csvValue(row.getName()) + ',' +
+                csvValue(row.getPrice() == null ? null : row.getPrice().toPlainString()) + ',' +
+                csvValue(row.getCategory()) + ',' + csvValue(row.getStoreId()) + '\n';
+    }
+
+    // Пустое значение без кавычек COPY читает как NULL
+    private static String csvValue(Object value) {
+        return value == null ? "" : '"' + value.toString().replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.store.service;
+
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.entity.Product;
+import com.example.store.index.LocationIndex;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.readmodel.ProductReadModel;
+import com.example.store.repository.ReactiveProductRepository;
+import com.example.store.repository.ReactiveStoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Отчёты StoreService для чтения без блокировки потоков (профиль reactive): те же источники ответа —
+// индекс адресов в памяти, витрины или исходные таблицы, — но строки отдаются потоком по мере чтения из БД
+@Service
+@Profile("reactive")
+public class ReactiveStoreService {
+
+    @Autowired
+    private ReactiveStoreRepository storeRepository;
+
+    @Autowired
+    private ReactiveProductRepository productRepository;
+
+    @Autowired
+    private StoreMapper storeMapper;
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @Autowired
+    private ProductReadModel productReadModel;
+
+    public Flux<AllStoresResponseDto> findAllStores() {
+
+        return storeRepository.findAll()
+                .map(storeMapper::mapToAllStoresResponseDto);
+
+    }
+
+    public Flux<ProductResponseDto> findAllProductByLocation(String street) {
+
+        Objects.requireNonNull(street);
+
+        Optional<List<ProductResponseDto>> fromIndex = locationIndex.findProductsByLocation(street);
+
+        if (fromIndex.isPresent()) {
+            return Flux.fromIterable(fromIndex.get());
+        }
+
+        String pattern = "%" + StoreService.escapeLike(street) + "%";
+
+        Flux<Product> products = productReadModel.isUsable()
+                ? productRepository.findAllByStoreLocationLikeFromReadModel(pattern)
+                : productRepository.findAllByStoreLocationLike(pattern);
+
+        return products.map(storeMapper::mapToProductResponseDto);
+
+    }
+
+    public Flux<ProductResponseDto> findUniqueProducts() {
+
+        Flux<Product> uniqueProducts = productReadModel.isUsable()
+                ? productRepository.findUniqueProductsFromReadModel()
+                : productRepository.findUniqueProducts();
+
+        return uniqueProducts.map(storeMapper::mapToProductResponseDto);
+
+    }
+
+}
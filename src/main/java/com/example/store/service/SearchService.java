@@ -0,0 +1,96 @@
+package com.example.store.service;
+
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.StoreRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Поиск магазинов и товаров: полнотекстовый поиск Postgres (tsvector + GIN) с исправлением опечаток
+// по словарю search_words (pg_trgm). Схема — миграция V1.7.0__Add_full_text_search.sql
+@Service
+@Timed("service.calls")
+@Transactional(readOnly = true)
+public class SearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreMapper storeMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${store.search.max-candidates:1000}")
+    private int maxCandidates;
+
+    @Value("${store.search.gin-fuzzy-limit:0}")
+    private int ginFuzzyLimit;
+
+    public List<AllStoresResponseDto> searchStores(String query, int page, int size) {
+
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        int pageSize = pageSize(size);
+        limitGinScan();
+
+        return storeRepository.search(query, maxCandidates, pageSize, offset(page, pageSize)).stream()
+                .map(storeMapper::mapToAllStoresResponseDto)
+                .toList();
+
+    }
+
+    public List<ProductResponseDto> searchProducts(String query, int page, int size) {
+
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        int pageSize = pageSize(size);
+        limitGinScan();
+
+        return productRepository.search(query, maxCandidates, pageSize, offset(page, pageSize)).stream()
+                .map(storeMapper::mapToProductResponseDto)
+                .toList();
+
+    }
+
+    // gin_fuzzy_search_limit ограничивает число строк, которые GIN-индекс отдаёт на одно слово запроса.
+    // Ускоряет очень общие запросы на больших таблицах ценой полноты выдачи, поэтому по умолчанию выключен.
+    // SET LOCAL действует только до конца текущей транзакции и не остаётся на соединении в пуле
+    private void limitGinScan() {
+
+        if (ginFuzzyLimit > 0) {
+            entityManager.createNativeQuery("SELECT set_config('gin_fuzzy_search_limit', :limit, true)")
+                    .setParameter("limit", String.valueOf(ginFuzzyLimit))
+                    .getSingleResult();
+        }
+
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static int offset(int page, int pageSize) {
+        return Math.max(page, 0) * pageSize;
+    }
+
+}
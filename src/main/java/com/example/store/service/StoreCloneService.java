@@ -0,0 +1,316 @@
+package com.example.store.service;
+
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.dto.CloneJobResponseDto;
+import com.example.store.entity.StoreCloneJob;
+import com.example.store.entity.StoreCloneJob.Status;
+import com.example.store.exception.JobRejectedException;
+import com.example.store.id.UuidV7;
+import com.example.store.index.LocationIndex;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.repository.StoreCloneJobRepository;
+import com.example.store.repository.StoreRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import java.sql.Array;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Клонирование магазина вместе с ассортиментом в фоне: запрос только ставит задание в очередь,
+// копии создаются двумя INSERT ... SELECT в одной транзакции — связи магазин-товар не читаются в JVM.
+// Очередь в памяти экземпляра и ограничена: при заполнении новые задания отклоняются (503).
+// Экземпляр продлевает аренду (heartbeat_at) своих заданий; задания упавшего или убитого экземпляра
+// остаются без продления и по истечении аренды завершаются с ошибкой
+@Service
+@Timed("service.calls")
+@Validated
+public class StoreCloneService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreCloneService.class);
+
+    // Наибольшее число копий в одном задании
+    public static final int MAX_COPIES = 1000;
+
+    private static final String INSERT_STORES = "INSERT INTO stores (id, name, location, email, updated_at, version) " +
+            "SELECT n.id, s.name, s.location, s.email, LOCALTIMESTAMP, 0 FROM stores s, unnest(?) AS n(id) WHERE s.id = ?";
+
+    private static final String INSERT_LINKS = "INSERT INTO store_products (id, store_id, product_id) " +
+            "SELECT gen_random_uuid(), n.id, sp.product_id FROM store_products sp, unnest(?) AS n(id) " +
+            "WHERE sp.store_id = ?";
+
+    // Копирование связей долгое: время изменения копий ставится после него по часам БД,
+    // чтобы копии не оказались старше изменений, закоммиченных, пока шло копирование
+    private static final String TOUCH_STORES = "UPDATE stores SET updated_at = clock_timestamp()::timestamp " +
+            "WHERE id = ANY(?)";
+
+    private static final String START_JOB = "UPDATE store_clone_jobs SET status = 'RUNNING', started_at = ?, " +
+            "heartbeat_at = ? WHERE id = ? AND status = 'QUEUED'";
+
+    // Завершённое задание не перезаписывается: ошибку получает только ещё не завершённое
+    private static final String FAIL_JOB = "UPDATE store_clone_jobs SET status = 'FAILED', error = ?, " +
+            "finished_at = ? WHERE id = ? AND status IN ('QUEUED', 'RUNNING')";
+
+    private static final String RENEW_LEASES = "UPDATE store_clone_jobs SET heartbeat_at = ? " +
+            "WHERE id = ANY(?) AND status IN ('QUEUED', 'RUNNING')";
+
+    private static final String EXPIRE_LEASES = "UPDATE store_clone_jobs SET status = 'FAILED', error = ?, " +
+            "finished_at = ? WHERE status IN ('QUEUED', 'RUNNING') AND heartbeat_at < ?";
+
+    // Сколько при остановке ждать выполняющиеся задания, прежде чем пометить их неудавшимися
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private StoreCloneJobRepository jobRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private StoreMapper storeMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @Value("${store.clone.threads:2}")
+    private int threads;
+
+    @Value("${store.clone.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${store.clone.lease:1m}")
+    private Duration lease;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate cloneTransaction;
+
+    // Задания этого экземпляра — в очереди или выполняющиеся: их аренда продлевается
+    private final Set<UUID> activeJobs = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService leaseExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("store-clone-lease").daemon().factory());
+
+    @PostConstruct
+    void init() {
+
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("store-clone-", 0).daemon().factory());
+
+        // Магазины и их связи копируются из одного снимка источника
+        cloneTransaction = new TransactionTemplate(transactionManager);
+        cloneTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+    }
+
+    // Продление начинается сразу после старта: заодно завершаются задания, брошенные прошлым запуском
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = Math.max(lease.toMillis() / 3, 1);
+        leaseExecutor.scheduleWithFixedDelay(this::renewLeases, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Задания, не успевшие начаться или закончиться до остановки, помечаются как неудавшиеся,
+    // чтобы их не ждали вечно. Если выполнявшееся задание всё же успеет закоммитить копии, его результат
+    // заменит ошибку
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+
+        leaseExecutor.shutdownNow();
+
+        for (Runnable queued : executor.shutdownNow()) {
+            if (queued instanceof CloneTask task) {
+                fail(task.jobId(), "Instance stopped before the job started");
+            }
+        }
+
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            for (UUID jobId : activeJobs) {
+                fail(jobId, "Instance stopped while the job was running");
+            }
+        }
+
+    }
+
+    public CloneJobResponseDto submit(UUID storeId, @Min(1) @Max(MAX_COPIES) int copies) {
+
+        if (!storeRepository.existsById(storeId)) {
+            throw new NoSuchElementException("Store not found: " + storeId);
+        }
+
+        StoreCloneJob job = new StoreCloneJob(null, storeId, copies, Status.QUEUED, null, null, null, now(), null,
+                null, now());
+        jobRepository.saveAndFlush(job);
+        activeJobs.add(job.getId());
+
+        try {
+            executor.execute(new CloneTask(job.getId(), this));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            fail(job.getId(), "Rejected: clone queue is full");
+            throw new JobRejectedException("Clone queue is full (" + queueCapacity + " jobs), retry later");
+        }
+
+        return storeMapper.mapToCloneJobResponseDto(job);
+
+    }
+
+    public CloneJobResponseDto findJob(UUID jobId) {
+
+        StoreCloneJob job = jobRepository.findById(jobId).orElseThrow();
+
+        return storeMapper.mapToCloneJobResponseDto(job);
+
+    }
+
+    private void run(UUID jobId) {
+
+        try {
+            execute(jobId);
+        } finally {
+            activeJobs.remove(jobId);
+        }
+
+    }
+
+    private void execute(UUID jobId) {
+
+        // Задание могло ждать в очереди дольше аренды и уже быть завершено с ошибкой
+        LocalDateTime startedAt = now();
+        if (jdbcTemplate.update(START_JOB, startedAt, startedAt, jobId) == 0) {
+            log.warn("Store clone job {} is no longer queued, skipped", jobId);
+            return;
+        }
+
+        StoreCloneJob job = jobRepository.findById(jobId).orElseThrow();
+
+        List<UUID> storeIds = new ArrayList<>(job.getCopies());
+        for (int i = 0; i < job.getCopies(); i++) {
+            storeIds.add(UuidV7.next());
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            // Результат задания фиксируется в той же транзакции, что и копии
+            cloneTransaction.executeWithoutResult(status -> {
+                long links = copy(job.getSourceStoreId(), storeIds);
+                changeFeed.record(EntityType.STORE, storeIds, Operation.COPIED);
+
+                job.setStatus(Status.SUCCEEDED);
+                job.setStoreIds(storeIds);
+                job.setLinksCopied(links);
+                job.setFinishedAt(now());
+                jobRepository.saveAndFlush(job);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Store clone job {} failed", jobId, e);
+            fail(jobId, e.getMessage());
+            return;
+        }
+
+        storeIds.forEach(locationIndex::refreshStore);
+
+        log.info("Store clone job {}: store {} cloned into {} stores with {} links in {} ms", jobId,
+                job.getSourceStoreId(), storeIds.size(), job.getLinksCopied(), (System.nanoTime() - start) / 1_000_000);
+
+    }
+
+    private long copy(UUID sourceStoreId, List<UUID> storeIds) {
+
+        Array ids = jdbcTemplate.execute((java.sql.Connection connection) ->
+                connection.createArrayOf("uuid", storeIds.toArray()));
+
+        int stores = jdbcTemplate.update(INSERT_STORES, ids, sourceStoreId);
+
+        if (stores == 0) {
+            throw new NoSuchElementException("Store not found: " + sourceStoreId);
+        }
+
+        long links = jdbcTemplate.update(INSERT_LINKS, ids, sourceStoreId);
+        jdbcTemplate.update(TOUCH_STORES, ids);
+
+        return links;
+
+    }
+
+    private void fail(UUID jobId, String error) {
+        jdbcTemplate.update(FAIL_JOB, error, now(), jobId);
+    }
+
+    // Продлевает аренду заданий этого экземпляра и завершает с ошибкой задания, аренда которых истекла
+    void renewLeases() {
+
+        try {
+            LocalDateTime now = now();
+
+            if (!activeJobs.isEmpty()) {
+                Array ids = jdbcTemplate.execute((java.sql.Connection connection) ->
+                        connection.createArrayOf("uuid", activeJobs.toArray()));
+                jdbcTemplate.update(RENEW_LEASES, now, ids);
+            }
+
+            int expired = jdbcTemplate.update(EXPIRE_LEASES, "Lease expired: instance stopped while the job was " +
+                    "queued or running", now, now.minus(lease));
+            if (expired > 0) {
+                log.warn("Store clone: {} jobs with lease older than {} marked as failed", expired, lease);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Store clone: lease renewal failed", e);
+        }
+
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // Задание в очереди исполнителя: по нему при остановке находятся неначатые задания
+    private record CloneTask(UUID jobId, StoreCloneService service) implements Runnable {
+
+        @Override
+        public void run() {
+            service.run(jobId);
+        }
+
+    }
+
+}
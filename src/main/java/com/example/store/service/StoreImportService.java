@@ -0,0 +1,181 @@
+package com.example.store.service;
+
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.dto.BulkImportErrorDto;
+import com.example.store.dto.BulkImportResponseDto;
+import com.example.store.entity.Store;
+import com.example.store.exception.PersistenceErrors;
+import com.example.store.request.StoreRequest;
+import com.example.store.sql.SqlStatementScope;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("service.calls")
+public class StoreImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreImportService.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${store.import.batch-size:500}")
+    private int batchSize;
+
+    // Принимает JSON-массив или NDJSON, читает записи потоком и сохраняет пачками по batchSize.
+    // Каждая пачка — отдельная транзакция, ошибка одной записи не отменяет остальные.
+    public BulkImportResponseDto importStores(InputStream body) throws IOException {
+
+        List<BulkImportErrorDto> errors = new ArrayList<>();
+        List<Store> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+        int imported = 0;
+        int index = 0;
+
+        try (MappingIterator<StoreRequest> requests = objectMapper.readerFor(StoreRequest.class).readValues(body)) {
+
+            while (hasNextValue(requests, index, errors)) {
+
+                try {
+                    StoreRequest request = requests.nextValue();
+                    String violations = validate(request);
+
+                    if (violations.isEmpty()) {
+                        batch.add(new Store(null, request.getName(), request.getLocation(),
+                                request.getEmail(), null, null));
+                        batchIndexes.add(index);
+                    } else {
+                        errors.add(new BulkImportErrorDto(index, violations));
+                    }
+                } catch (JsonMappingException e) {
+                    errors.add(new BulkImportErrorDto(index, e.getOriginalMessage()));
+                }
+
+                index++;
+
+                if (batch.size() == batchSize) {
+                    imported += persistBatch(batch, batchIndexes, errors);
+                }
+
+            }
+
+        }
+
+        imported += persistBatch(batch, batchIndexes, errors);
+
+        return new BulkImportResponseDto(imported, errors);
+
+    }
+
+    // Синтаксическая ошибка JSON не позволяет читать дальше: фиксируем её и завершаем чтение
+    private boolean hasNextValue(MappingIterator<StoreRequest> requests, int index, List<BulkImportErrorDto> errors)
+            throws IOException {
+        try {
+            return requests.hasNextValue();
+        } catch (JsonProcessingException e) {
+            errors.add(new BulkImportErrorDto(index, e.getOriginalMessage()));
+            return false;
+        }
+    }
+
+    private String validate(StoreRequest request) {
+
+        Set<ConstraintViolation<StoreRequest>> violations = validator.validate(request);
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+    }
+
+    private int persistBatch(List<Store> batch, List<Integer> batchIndexes, List<BulkImportErrorDto> errors) {
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int imported = 0;
+
+        try {
+            // Пачка из batchSize одинаковых INSERT — ожидаемая форма нагрузки, а не N+1
+            SqlStatementScope.runUnbudgeted(() ->
+                    transactionTemplate.executeWithoutResult(status -> persistAll(batch)));
+            imported = batch.size();
+        } catch (RuntimeException batchException) {
+            // Пачка откатилась целиком: сохраняем её записи по одной, чтобы найти ошибочные
+            for (int i = 0; i < batch.size(); i++) {
+                // Неудачный persist уже присвоил записи id и версию: Hibernate считал бы её отсоединённой
+                Store store = copyForRetry(batch.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persistAll(List.of(store)));
+                    imported++;
+                } catch (RuntimeException e) {
+                    // Клиенту — стабильное сообщение, текст исключения с SQL и значениями — только в лог
+                    log.warn("Store import: row {} rejected", batchIndexes.get(i), e);
+                    errors.add(new BulkImportErrorDto(batchIndexes.get(i), PersistenceErrors.describe(e)));
+                }
+            }
+        }
+
+        batch.clear();
+        batchIndexes.clear();
+
+        return imported;
+
+    }
+
+    private static Store copyForRetry(Store store) {
+        return new Store(null, store.getName(), store.getLocation(), store.getEmail(), null, null);
+    }
+
+    private void persistAll(List<Store> stores) {
+
+        stores.forEach(entityManager::persist);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // События по id одним пакетом: остальные экземпляры вытесняют из кэша только эти магазины.
+        // IMPORTED без id (сброс кэша целиком) — только для загрузки через COPY, где id не известны
+        List<UUID> ids = stores.stream().map(Store::getId).toList();
+        changeFeed.record(EntityType.STORE, ids, Operation.CREATED);
+
+    }
+
+}
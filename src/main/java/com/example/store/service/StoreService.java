@@ -1,29 +1,59 @@
 package com.example.store.service;
 
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.config.CacheConfig;
 import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.BatchResponseDto;
 import com.example.store.dto.ProductResponseDto;
+import com.example.store.dto.StorePageResponseDto;
 import com.example.store.dto.StoreResponseDto;
 import com.example.store.entity.Product;
 import com.example.store.entity.Store;
 import com.example.store.entity.StoreProduct;
+import com.example.store.exception.InvalidCursorException;
+import com.example.store.exception.PreconditionFailedException;
+import com.example.store.index.LocationIndex;
 import com.example.store.mapper.StoreMapper;
+import com.example.store.readmodel.ProductReadModel;
 import com.example.store.repository.ProductRepository;
 import com.example.store.repository.StoreProductRepository;
 import com.example.store.repository.StoreRepository;
+import com.example.store.repository.TableVersion;
 import com.example.store.request.ProductRequest;
 import com.example.store.request.StoreRequest;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("service.calls")
 @Validated
 @Transactional(readOnly = true)
 public class StoreService {
@@ -40,28 +70,47 @@ public class StoreService {
     @Autowired
     private StoreProductRepository storeProductRepository;
 
-    private final Predicate<Product> PRODUCT_IS_UNIQUE =
-            product -> storeRepository.countStoresByProductId(product.getId()) == 1;
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private ProductReadModel productReadModel;
+
+    @Autowired
+    private SyncService syncService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int MAX_PAGE_SIZE = 1000;
 
     @Transactional(rollbackFor = Exception.class)
     public StoreResponseDto createStore(@Valid StoreRequest request) {
 
-        Store store = new Store(UUID.randomUUID(), request.getName(), request.getLocation(), request.getEmail(), null);
+        Store store = new Store(null, request.getName(), request.getLocation(), request.getEmail(), null, null);
 
         storeRepository.saveAndFlush(store);
+        changeFeed.record(EntityType.STORE, store.getId(), Operation.CREATED);
 
         return storeMapper.mapToStoreResponseDto(store);
 
     }
 
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.STORES, key = "#storeId")
     public void deleteStore(UUID storeId) {
 
         storeRepository.findById(storeId).orElseThrow();
         storeRepository.deleteById(storeId);
+        syncService.recordDeletion(EntityType.STORE, storeId);
+        changeFeed.record(EntityType.STORE, storeId, Operation.DELETED);
 
     }
 
+    @Cacheable(cacheNames = CacheConfig.STORES, key = "#storeId")
     public StoreResponseDto findById(UUID storeId) {
 
         Store store = storeRepository.findById(storeId).orElseThrow();
@@ -70,16 +119,70 @@ public class StoreService {
 
     }
 
+    // Пакетное чтение мимо кэша: один запрос IN на каждые BatchLoader.CHUNK_SIZE идентификаторов
+    public BatchResponseDto<StoreResponseDto> findAllByIds(@Size(max = BatchLoader.MAX_IDS) List<@NotNull UUID> storeIds) {
+
+        return BatchLoader.load(storeIds, storeRepository::findAllById, Store::getId,
+                storeMapper::mapToStoreResponseDto);
+
+    }
+
+    // Версии для условных GET: читаются без загрузки сущностей
+    public Optional<LocalDateTime> findUpdatedAt(UUID storeId) {
+        return storeRepository.findUpdatedAtById(storeId);
+    }
+
+    public TableVersion findAllStoresVersion() {
+        return storeRepository.findTableVersion();
+    }
+
+    public TableVersion findByLocationVersion(String location) {
+        return storeRepository.findTableVersionByLocation(location);
+    }
+
+    // Запись мимо кэша с обновлением кэша: когда в кэше осталась версия старше, чем в БД
+    @CachePut(cacheNames = CacheConfig.STORES, key = "#storeId")
+    public StoreResponseDto refreshById(UUID storeId) {
+
+        Store store = storeRepository.findById(storeId).orElseThrow();
+
+        return storeMapper.mapToStoreResponseDto(store);
+
+    }
+
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.STORES, key = "#id")
     public StoreResponseDto updateById(UUID id, @Valid StoreRequest request) {
 
+        return updateById(id, request, null);
+
+    }
+
+    // Условное изменение: expectedUpdatedAt — версия, которую видел клиент (If-Match), null — без проверки.
+    // Изменение, успевшее между чтением и записью, отсекает @Version (UPDATE ... WHERE version = ?) без блокировок
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.STORES, key = "#id")
+    public StoreResponseDto updateById(UUID id, @Valid StoreRequest request, LocalDateTime expectedUpdatedAt) {
+
         Store store = storeRepository.findById(id).orElseThrow();
 
+        if (expectedUpdatedAt != null && !expectedUpdatedAt.equals(store.getUpdatedAt())) {
+            throw new PreconditionFailedException("Store " + id + " has been modified since " + expectedUpdatedAt);
+        }
+
         store.setName(request.getName());
         store.setLocation(request.getLocation());
         store.setEmail(request.getEmail());
 
-        storeRepository.saveAndFlush(store);
+        try {
+            storeRepository.saveAndFlush(store);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedUpdatedAt != null) {
+                throw new PreconditionFailedException("Store " + id + " has been modified concurrently");
+            }
+            throw e;
+        }
+        changeFeed.record(EntityType.STORE, id, Operation.UPDATED);
 
         return storeMapper.mapToStoreResponseDto(store);
 
@@ -115,45 +218,92 @@ public class StoreService {
 
     }
 
+    public StorePageResponseDto findStoresPageByName(String cursor, int size) {
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Store> stores;
+        if (cursor == null || cursor.isBlank()) {
+            stores = storeRepository.findFirstPageByName(pageSize + 1);
+        } else {
+            Store after = decodeCursor(cursor);
+            stores = storeRepository.findNextPageByName(after.getName(), after.getId(), pageSize + 1);
+        }
+
+        boolean hasNext = stores.size() > pageSize;
+        List<Store> page = hasNext ? stores.subList(0, pageSize) : stores;
+
+        return new StorePageResponseDto(
+                page.stream()
+                        .map(storeMapper::mapToAllStoresResponseDto)
+                        .toList(),
+                hasNext ? encodeCursor(page.get(pageSize - 1)) : null);
+
+    }
+
+    public void streamAllStoresByName(Consumer<AllStoresResponseDto> consumer) {
+
+        try (Stream<Store> stores = storeRepository.streamAllByName()) {
+            stores.forEach(store -> {
+                consumer.accept(storeMapper.mapToAllStoresResponseDto(store));
+                entityManager.detach(store); // Не копим прочитанные сущности в контексте персистентности
+            });
+        }
+
+    }
+
     @Transactional(rollbackFor = Exception.class)
+    @CachePut(cacheNames = CacheConfig.STORES, key = "#result.id")
     public StoreResponseDto copy(UUID storeId) {
 
         Store store = storeRepository.findById(storeId)
                 .orElseThrow();
 
-        Store copyStore = new Store(UUID.randomUUID(), store.getName(), store.getLocation(), store.getEmail(), store.getUpdatedAt());
+        Store copyStore = new Store(null, store.getName(), store.getLocation(), store.getEmail(), store.getUpdatedAt(),
+                null);
 
         storeRepository.saveAndFlush(copyStore);
+        changeFeed.record(EntityType.STORE, copyStore.getId(), Operation.COPIED);
 
         return storeMapper.mapToStoreResponseDto(copyStore);
 
     }
 
+    // Без транзакции: ответ из индекса в памяти не должен занимать соединение с БД
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductResponseDto> findAllProductByLocation(String street) {
 
-        // Шаг 1. Получаем все магазины
-        List<Store> allStores = storeRepository.findAll();
-
-        return allStores.stream()
-                .filter(e -> e.getLocation().contains(street)) // Шаг 2. Фильтруем магазины по указанной улице
-                .map(Store::getId)
-                .map(storeProductRepository::findByStoreId)
-                .flatMap(List::stream)
-                .map(StoreProduct::getProductId)
-                .map(productId -> productRepository.findById(productId)
-                        .orElseThrow())
+        Objects.requireNonNull(street);
+
+        // Ответ из индекса в памяти, если он включён и построен
+        Optional<List<ProductResponseDto>> fromIndex = locationIndex.findProductsByLocation(street);
+
+        if (fromIndex.isPresent()) {
+            return fromIndex.get();
+        }
+
+        // Фильтрация по улице и соединение stores ⋈ store_products ⋈ products выполняются одним запросом в БД,
+        // а если витрина достаточно свежая — соединение уже посчитано в ней
+        String pattern = "%" + escapeLike(street) + "%";
+
+        List<Product> products = productReadModel.isUsable()
+                ? productRepository.findAllByStoreLocationLikeFromReadModel(pattern)
+                : productRepository.findAllByStoreLocationLike(pattern);
+
+        return products.stream()
                 .map(storeMapper::mapToProductResponseDto)
-                .distinct()
-                .toList(); // Шаг 3., собираем все товары из найденных магазинов
+                .toList();
 
     }
 
     public List<ProductResponseDto> findUniqueProducts() {
 
-        List<Product> allProducts = productRepository.findAll();
+        List<Product> uniqueProducts = productReadModel.isUsable()
+                ? productRepository.findUniqueProductsFromReadModel()
+                : productRepository.findUniqueProducts();
 
-        return allProducts.stream()
-                .filter(PRODUCT_IS_UNIQUE)
+        return uniqueProducts.stream()
                 .map(storeMapper::mapToProductResponseDto)
                 .toList();
 
@@ -178,15 +328,75 @@ public class StoreService {
 //
 //    }
 
-    public ProductResponseDto createProduct(UUID storeId, ProductRequest request) {
+    @Transactional(rollbackFor = Exception.class)
+    public ProductResponseDto createProduct(@NotNull UUID storeId, @Valid ProductRequest request) {
+
+        return saveProduct(List.of(storeId), request);
+
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public ProductResponseDto createProductInStores(@NotEmpty List<@NotNull UUID> storeIds,
+                                                    @Valid ProductRequest request) {
+
+        return saveProduct(storeIds, request);
+
+    }
+
+    // Общая часть createProduct и createProductInStores: вызывается внутри их транзакции
+    private ProductResponseDto saveProduct(List<UUID> storeIds, ProductRequest request) {
+
+        List<UUID> distinctStoreIds = storeIds.stream()
+                .distinct()
+                .toList();
+
+        // Все магазины проверяются одним запросом
+        if (storeRepository.findAllById(distinctStoreIds).size() != distinctStoreIds.size()) {
+            throw new NoSuchElementException("Store not found: " + distinctStoreIds);
+        }
 
-        Product product = new Product(UUID.randomUUID(), request.getName(), request.getPrice(), "some");
+        Product product = new Product(null, request.getName(), request.getPrice(), "some");
 
-        productRepository.saveAndFlush(product);
+        // persist без предварительного SELECT, товар и связи уходят в БД одним пакетным flush
+        entityManager.persist(product);
+        distinctStoreIds.stream()
+                .map(storeId -> new StoreProduct(null, storeId, product.getId()))
+                .forEach(entityManager::persist);
+        entityManager.flush();
 
-        new StoreProduct(UUID.randomUUID(), storeId, product.getId());
+        changeFeed.record(EntityType.PRODUCT, product.getId(), Operation.CREATED);
+        changeFeed.record(EntityType.STORE_PRODUCTS, distinctStoreIds, Operation.UPDATED);
 
         return storeMapper.mapToProductResponseDto(product);
+
+    }
+
+    private static String encodeCursor(Store store) {
+        String position = store.getId() + ":" + store.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Store decodeCursor(String cursor) {
+
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+
+            Store store = new Store();
+            store.setId(UUID.fromString(position.substring(0, separator)));
+            store.setName(position.substring(separator + 1));
+
+            return store;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
 }
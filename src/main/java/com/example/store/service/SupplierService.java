@@ -1,19 +1,36 @@
 package com.example.store.service;
 
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.config.CacheConfig;
+import com.example.store.dto.BatchResponseDto;
 import com.example.store.dto.SupplierResponseDto;
 import com.example.store.entity.Supplier;
+import com.example.store.exception.PreconditionFailedException;
 import com.example.store.mapper.SupplierMapper;
 import com.example.store.repository.SupplierRepository;
 import com.example.store.request.SupplierRequest;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Timed("service.calls")
 @Validated
 @Transactional(readOnly = true)
 public class SupplierService {
@@ -24,24 +41,36 @@ public class SupplierService {
     @Autowired
     private SupplierMapper supplierMapper;
 
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private SyncService syncService;
+
     @Transactional(rollbackFor = Exception.class)
     public SupplierResponseDto createSupplier(@Valid SupplierRequest request) {
 
-        Supplier supplier = new Supplier(UUID.randomUUID(), request.getName(), request.getEmail(), request.getPhone(), request.getAddress(), request.getWebsite(), null);
+        Supplier supplier = new Supplier(null, request.getName(), request.getEmail(), request.getPhone(), request.getAddress(), request.getWebsite(), null, null);
 
         supplierRepository.saveAndFlush(supplier);
+        changeFeed.record(EntityType.SUPPLIER, supplier.getId(), Operation.CREATED);
 
         return supplierMapper.mapToSupplierResponseDto(supplier);
 
     }
 
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIERS, key = "#supplierId")
     public void deleteSupplier(UUID supplierId) {
 
+        supplierRepository.findById(supplierId).orElseThrow();
         supplierRepository.deleteById(supplierId);
+        syncService.recordDeletion(EntityType.SUPPLIER, supplierId);
+        changeFeed.record(EntityType.SUPPLIER, supplierId, Operation.DELETED);
 
     }
 
+    @Cacheable(cacheNames = CacheConfig.SUPPLIERS, key = "#supplierId")
     public SupplierResponseDto findById(UUID supplierId) {
 
         Supplier supplier = supplierRepository.findById(supplierId).orElseThrow();
@@ -50,18 +79,63 @@ public class SupplierService {
 
     }
 
+    // Пакетное чтение мимо кэша, см. StoreService.findAllByIds
+    public BatchResponseDto<SupplierResponseDto> findAllByIds(@Size(max = BatchLoader.MAX_IDS) List<@NotNull UUID> supplierIds) {
+
+        return BatchLoader.load(supplierIds, supplierRepository::findAllById, Supplier::getId,
+                supplierMapper::mapToSupplierResponseDto);
+
+    }
+
+    // Версия для условного GET: читается без загрузки сущности
+    public Optional<LocalDateTime> findUpdatedAt(UUID supplierId) {
+        return supplierRepository.findUpdatedAtById(supplierId);
+    }
+
+    // Запись мимо кэша с обновлением кэша: когда в кэше осталась версия старше, чем в БД
+    @CachePut(cacheNames = CacheConfig.SUPPLIERS, key = "#supplierId")
+    public SupplierResponseDto refreshById(UUID supplierId) {
+
+        Supplier supplier = supplierRepository.findById(supplierId).orElseThrow();
+
+        return supplierMapper.mapToSupplierResponseDto(supplier);
+
+    }
+
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIERS, key = "#id")
     public SupplierResponseDto updateById(UUID id, @Valid SupplierRequest request) {
 
+        return updateById(id, request, null);
+
+    }
+
+    // Условное изменение по версии из If-Match, см. StoreService.updateById
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIERS, key = "#id")
+    public SupplierResponseDto updateById(UUID id, @Valid SupplierRequest request, LocalDateTime expectedUpdatedAt) {
+
         Supplier supplier = supplierRepository.findById(id).orElseThrow();
 
+        if (expectedUpdatedAt != null && !expectedUpdatedAt.equals(supplier.getUpdatedAt())) {
+            throw new PreconditionFailedException("Supplier " + id + " has been modified since " + expectedUpdatedAt);
+        }
+
         supplier.setName(request.getName());
         supplier.setEmail(request.getEmail());
         supplier.setPhone(request.getPhone());
         supplier.setAddress(request.getAddress());
         supplier.setWebsite(request.getWebsite());
 
-        supplierRepository.saveAndFlush(supplier);
+        try {
+            supplierRepository.saveAndFlush(supplier);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedUpdatedAt != null) {
+                throw new PreconditionFailedException("Supplier " + id + " has been modified concurrently");
+            }
+            throw e;
+        }
+        changeFeed.record(EntityType.SUPPLIER, id, Operation.UPDATED);
 
         return supplierMapper.mapToSupplierResponseDto(supplier);
 
@@ -0,0 +1,252 @@
+package com.example.store.service;
+
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.dto.SupplierResponseDto;
+import com.example.store.dto.SyncResponseDto;
+import com.example.store.entity.Store;
+import com.example.store.entity.Supplier;
+import com.example.store.exception.InvalidCursorException;
+import com.example.store.mapper.StoreMapper;
+import com.example.store.mapper.SupplierMapper;
+import com.example.store.repository.StoreRepository;
+import com.example.store.repository.SupplierRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Инкрементальная синхронизация магазинов и поставщиков: записи, изменённые после отметки (watermark),
+// и удалённые после неё (tombstones). Отметка — позиция (время изменения, id) в общем порядке изменений,
+// поэтому записи с одинаковым временем не теряются между частями ответа.
+// Полная синхронизация идёт по всем записям, в том числе давно не менявшимся: пока она не закончена,
+// отметка хранит и время её начала — по нему, а не по времени записей, решается, не устарела ли отметка.
+// Время изменения — начало транзакции по часам БД (LOCALTIMESTAMP, см. JpaAuditingConfig), а видна запись
+// становится после коммита. Поэтому отметка не заходит дальше начала самой старой открытой транзакции:
+// всё, что она ещё запишет, получит время не раньше своего начала. Отметка по часам БД — часы экземпляров
+// в сравнении не участвуют.
+// Начало чужих транзакций видно в pg_stat_activity только для сеансов той же роли (или с pg_read_all_stats)
+@Service
+@Timed("service.calls")
+@Transactional(readOnly = true)
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+    private static final Position START = new Position(LocalDateTime.of(1970, 1, 1, 0, 0), MIN_ID);
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+
+    private static final String CHANGED = "SELECT id, updated_at AS changed_at, FALSE AS deleted FROM %s " +
+            "WHERE (updated_at, id) > (?, ?) AND updated_at < ?";
+
+    private static final String DELETED = "SELECT entity_id, deleted_at, TRUE FROM tombstones " +
+            "WHERE entity_type = ? AND (deleted_at, entity_id) > (?, ?) AND deleted_at < ?";
+
+    private static final String INSERT_TOMBSTONE = "INSERT INTO tombstones (entity_type, entity_id, deleted_at) " +
+            "VALUES (?, ?, LOCALTIMESTAMP) ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_TOMBSTONES_OLDER_THAN = "DELETE FROM tombstones " +
+            "WHERE deleted_at < LOCALTIMESTAMP - make_interval(secs => ?)";
+
+    // Текущее время БД и граница выборки: не дальше начала самой старой открытой транзакции других сеансов.
+    // Берутся все открытые транзакции, а не только получившие xid (pg_snapshot_xmin(pg_current_snapshot())):
+    // транзакция без xid ещё может начать запись, и время записи будет временем её начала
+    private static final String CLOCK = "SELECT clock_timestamp()::timestamp, " +
+            "least(clock_timestamp(), (SELECT min(xact_start) FROM pg_stat_activity " +
+            "WHERE datname = current_database() AND backend_type = 'client backend' " +
+            "AND pid <> pg_backend_pid()))::timestamp";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private StoreMapper storeMapper;
+
+    @Autowired
+    private SupplierMapper supplierMapper;
+
+    @Value("${store.sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("tombstone-cleanup").daemon().factory());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cleanupExecutor.scheduleWithFixedDelay(this::deleteExpiredTombstones, 0, CLEANUP_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cleanupExecutor.shutdownNow();
+    }
+
+    // watermark — отметка из предыдущего ответа, null — первая синхронизация
+    public SyncResponseDto<StoreResponseDto> syncStores(String watermark, int limit) {
+        return sync(EntityType.STORE, "stores", watermark, limit, storeRepository::findAllById, Store::getId,
+                storeMapper::mapToStoreResponseDto);
+    }
+
+    public SyncResponseDto<SupplierResponseDto> syncSuppliers(String watermark, int limit) {
+        return sync(EntityType.SUPPLIER, "suppliers", watermark, limit, supplierRepository::findAllById,
+                Supplier::getId, supplierMapper::mapToSupplierResponseDto);
+    }
+
+    // Вызывается в транзакции удаления: откат удаления отменяет и отметку
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(EntityType type, UUID id) {
+        jdbcTemplate.update(INSERT_TOMBSTONE, type.name(), id);
+    }
+
+    private <E, T> SyncResponseDto<T> sync(EntityType type, String table, String watermark, int limit,
+                                           Function<List<UUID>, List<E>> loader, Function<E, UUID> idOf,
+                                           Function<E, T> mapper) {
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Clock clock = jdbcTemplate.queryForObject(CLOCK, (rs, rowNum) ->
+                new Clock(rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class)));
+        LocalDateTime now = clock.now();
+        LocalDateTime until = clock.until();
+
+        // Нужные клиенту удаления старше срока хранения tombstones: часть могла уже пропасть, отдаём всё заново.
+        // Полная синхронизация начинается с until: удаление, отмеченное раньше, закоммичено до выборки
+        Watermark since = watermark == null || watermark.isBlank() ? null : decodeWatermark(watermark);
+        boolean fullResync = since == null ||
+                deletedFrom(since).changedAt().isBefore(now.minus(tombstoneRetention));
+        Watermark current = fullResync ? new Watermark(START, until) : since;
+
+        Position from = current.position();
+        Position deletedFrom = deletedFrom(current);
+
+        String sql = "SELECT * FROM (" + CHANGED.formatted(table) + " UNION ALL " + DELETED +
+                ") c ORDER BY changed_at, id LIMIT ?";
+        List<Object> args = List.of(from.changedAt(), from.id(), until,
+                type.name(), deletedFrom.changedAt(), deletedFrom.id(), until, pageSize + 1);
+
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли ещё изменения
+        List<Change> changes = jdbcTemplate.query(sql, (rs, rowNum) -> new Change(
+                new Position(rs.getObject(2, LocalDateTime.class), rs.getObject(1, UUID.class)), rs.getBoolean(3)),
+                args.toArray());
+
+        boolean hasMore = changes.size() > pageSize;
+        List<Change> page = hasMore ? changes.subList(0, pageSize) : changes;
+
+        // Сами записи — одним запросом по id; удалённые после выборки придут отметкой в следующих ответах
+        List<UUID> changedIds = page.stream().filter(change -> !change.deleted()).map(change -> change.at().id()).toList();
+        Map<UUID, E> entities = changedIds.isEmpty() ? Map.of() : loader.apply(changedIds).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+
+        List<T> items = changedIds.stream()
+                .filter(entities::containsKey)
+                .map(id -> mapper.apply(entities.get(id)))
+                .toList();
+        List<UUID> deleted = page.stream().filter(Change::deleted).map(change -> change.at().id()).toList();
+
+        // Все изменения до until отданы: следующий запрос начинается с until, а не с последней записи,
+        // чтобы отметка клиента без изменений не устаревала. Полная синхронизация на этом заканчивается
+        Watermark next = hasMore ? new Watermark(page.get(pageSize - 1).at(), current.resyncStartedAt())
+                : new Watermark(from.changedAt().isBefore(until) ? new Position(until, MIN_ID) : from, null);
+
+        return new SyncResponseDto<>(items, deleted, encodeWatermark(next), hasMore, fullResync);
+
+    }
+
+    private void deleteExpiredTombstones() {
+
+        try {
+            int deleted = jdbcTemplate.update(DELETE_TOMBSTONES_OLDER_THAN, tombstoneRetention.toSeconds());
+            if (deleted > 0) {
+                log.info("Sync: {} tombstones older than {} deleted", deleted, tombstoneRetention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sync: tombstone cleanup failed", e);
+        }
+
+    }
+
+    // Удаления нужны клиенту начиная с отметки, а при полной синхронизации — с её начала:
+    // клиент очистил свою копию, и удалённые раньше записи ему не известны
+    private static Position deletedFrom(Watermark watermark) {
+
+        Position position = watermark.position();
+        LocalDateTime resyncStartedAt = watermark.resyncStartedAt();
+
+        return resyncStartedAt == null || position.changedAt().isAfter(resyncStartedAt) ? position
+                : new Position(resyncStartedAt, MIN_ID);
+
+    }
+
+    // id:время изменения, у незаконченной полной синхронизации — ещё |время её начала
+    static String encodeWatermark(Watermark watermark) {
+
+        Position position = watermark.position();
+        String value = position.id() + ":" + position.changedAt() +
+                (watermark.resyncStartedAt() == null ? "" : "|" + watermark.resyncStartedAt());
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+
+    }
+
+    private static Watermark decodeWatermark(String watermark) {
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            int resync = value.indexOf('|');
+            Position position = new Position(
+                    LocalDateTime.parse(value.substring(separator + 1, resync < 0 ? value.length() : resync)),
+                    UUID.fromString(value.substring(0, separator)));
+            return new Watermark(position, resync < 0 ? null : LocalDateTime.parse(value.substring(resync + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid watermark: " + watermark, e);
+        }
+
+    }
+
+    record Position(LocalDateTime changedAt, UUID id) {
+    }
+
+    // resyncStartedAt — начало незаконченной полной синхронизации, null — инкрементальная
+    record Watermark(Position position, LocalDateTime resyncStartedAt) {
+    }
+
+    private record Change(Position at, boolean deleted) {
+    }
+
+    // until — граница выборки: изменения с временем раньше неё уже закоммичены
+    private record Clock(LocalDateTime now, LocalDateTime until) {
+    }
+
+}
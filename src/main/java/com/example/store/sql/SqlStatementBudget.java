@@ -0,0 +1,67 @@
+package com.example.store.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Бюджет SQL-запросов на одну область (HTTP-запрос или транзакцию вне HTTP).
+// В режиме log нарушения пишутся в лог при закрытии области, в режиме fail запрос,
+// превысивший бюджет, завершается исключением SqlBudgetExceededException.
+@Component
+public class SqlStatementBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementBudget.class);
+
+    public enum Mode { OFF, LOG, FAIL }
+
+    @Value("${store.sql-budget.mode:log}")
+    private Mode mode;
+
+    @Value("${store.sql-budget.max-statements:100}")
+    private int maxStatements;
+
+    @Value("${store.sql-budget.n-plus-one-threshold:20}")
+    private int nPlusOneThreshold;
+
+    void onStatement(SqlStatementScope scope, String shape, int shapeCount) {
+
+        if (mode != Mode.FAIL || scope.isUnbudgeted()) {
+            return;
+        }
+
+        if (shapeCount > nPlusOneThreshold) {
+            throw new SqlBudgetExceededException("Probable N+1 in " + scope.getDescription() + ": statement executed "
+                    + shapeCount + " times (threshold " + nPlusOneThreshold + "): " + shape);
+        }
+
+        if (scope.getCount() > maxStatements) {
+            throw new SqlBudgetExceededException("SQL budget exceeded in " + scope.getDescription() + ": "
+                    + scope.getCount() + " statements (budget " + maxStatements + ")");
+        }
+
+    }
+
+    void onClose(SqlStatementScope scope) {
+
+        if (mode != Mode.LOG || scope.isUnbudgeted()) {
+            return;
+        }
+
+        if (scope.getCount() > maxStatements) {
+            log.warn("SQL budget exceeded in {}: {} statements (budget {})",
+                    scope.getDescription(), scope.getCount(), maxStatements);
+        }
+
+        for (Map.Entry<String, Integer> shape : scope.getShapes().entrySet()) {
+            if (shape.getValue() > nPlusOneThreshold) {
+                log.warn("Probable N+1 in {}: statement executed {} times (threshold {}): {}",
+                        scope.getDescription(), shape.getValue(), nPlusOneThreshold, shape.getKey());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.store.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Получает каждый SQL-запрос Hibernate перед выполнением и учитывает его в текущем SqlStatementScope.
+// Вне HTTP-запроса (тесты, фоновые задачи) областью учёта служит текущая транзакция.
+@Component
+public class SqlStatementInspector implements StatementInspector {
+
+    @Autowired
+    private SqlStatementBudget budget;
+
+    @Override
+    public String inspect(String sql) {
+
+        SqlStatementScope scope = SqlStatementScope.current();
+
+        if (scope == null) {
+            scope = openTransactionScope();
+        }
+
+        if (scope != null) {
+            String shape = SqlStatementScope.shapeOf(sql);
+            budget.onStatement(scope, shape, scope.record(shape));
+        }
+
+        return sql;
+
+    }
+
+    private SqlStatementScope openTransactionScope() {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        SqlStatementScope scope = SqlStatementScope.open("transaction " + (name != null ? name : "<unnamed>"));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                scope.close();
+                budget.onClose(scope);
+            }
+        });
+
+        return scope;
+
+    }
+
+}
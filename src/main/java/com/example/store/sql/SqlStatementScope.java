@@ -0,0 +1,97 @@
+package com.example.store.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Счётчик SQL-запросов, выполненных в текущем потоке за время обработки HTTP-запроса или транзакции.
+// Кроме общего числа хранит, сколько раз выполнялась каждая «форма» запроса — повторы одной формы указывают на N+1.
+public final class SqlStatementScope {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> UNBUDGETED = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+
+    private final String description;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int count;
+    private boolean unbudgeted;
+
+    private SqlStatementScope(String description) {
+        this.description = description;
+    }
+
+    public static SqlStatementScope open(String description) {
+        SqlStatementScope scope = new SqlStatementScope(description);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static SqlStatementScope current() {
+        return CURRENT.get();
+    }
+
+    // Выполняет заведомо массовую операцию (пакетный импорт и т.п.) без проверки бюджета.
+    // Запросы по-прежнему учитываются в метрике, но область, в которой они выполнялись, не проверяется.
+    public static void runUnbudgeted(Runnable action) {
+
+        Boolean previous = UNBUDGETED.get();
+        UNBUDGETED.set(Boolean.TRUE);
+
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                UNBUDGETED.remove();
+            }
+        }
+
+    }
+
+    public void close() {
+        CURRENT.remove();
+    }
+
+    // Возвращает, сколько раз в этой области уже выполнялась форма данного запроса
+    int record(String shape) {
+
+        count++;
+
+        if (Boolean.TRUE.equals(UNBUDGETED.get())) {
+            unbudgeted = true;
+        }
+
+        return shapes.merge(shape, 1, Integer::sum);
+
+    }
+
+    // Форма запроса: без литералов, с IN-списком любой длины как одним параметром и нормализованными пробелами
+    static String shapeOf(String sql) {
+
+        String shape = LITERAL.matcher(sql).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    Map<String, Integer> getShapes() {
+        return shapes;
+    }
+
+    boolean isUnbudgeted() {
+        return unbudgeted;
+    }
+
+}
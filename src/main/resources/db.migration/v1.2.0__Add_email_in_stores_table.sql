@@ -1 +0,0 @@
-ALTER TABLE stores ADD COLUMN email TEXT;
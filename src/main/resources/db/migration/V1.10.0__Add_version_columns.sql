@@ -0,0 +1,4 @@
+-- Оптимистическая блокировка: Hibernate увеличивает version при каждом UPDATE
+-- и проверяет её в условии (UPDATE ... WHERE id = ? AND version = ?) вместо блокировки строки
+ALTER TABLE stores ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE suppliers ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Витрины для отчётов, которые дашборды опрашивают постоянно: ответ без соединения трёх таблиц
+-- и без GROUP BY по всем связям на каждый запрос. Обновляются REFRESH MATERIALIZED VIEW CONCURRENTLY
+-- (см. ProductReadModel), для этого у каждой витрины есть уникальный индекс.
+-- Представления зависят от stores.location и колонок products: изменение их типа потребует пересоздания витрин
+
+-- Адрес магазина -> товары всех магазинов с этим адресом (/stores/product/by-location).
+-- Одна строка на адрес, а не на пару адрес-товар: триграммный индекс и пересчёт на порядок меньше
+CREATE MATERIALIZED VIEW IF NOT EXISTS location_products AS
+SELECT s.location, array_agg(DISTINCT sp.product_id) AS product_ids
+FROM stores s
+         JOIN store_products sp ON sp.store_id = s.id
+GROUP BY s.location;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_location_products ON location_products (location);
+
+-- Поиск по подстроке адреса, как idx_stores_location_trgm для stores
+CREATE INDEX IF NOT EXISTS idx_location_products_location_trgm ON location_products USING GIN (location gin_trgm_ops);
+
+-- Товар -> число магазинов, где он продаётся (/stores/products/unique)
+CREATE MATERIALIZED VIEW IF NOT EXISTS product_store_counts AS
+SELECT sp.product_id, count(*) AS store_count
+FROM store_products sp
+GROUP BY sp.product_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_product_store_counts ON product_store_counts (product_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_store_counts_unique ON product_store_counts (product_id) WHERE store_count = 1;
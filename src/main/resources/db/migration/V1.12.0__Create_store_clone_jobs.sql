@@ -0,0 +1,16 @@
+-- Задания клонирования магазина вместе с ассортиментом (POST /stores/{id}/clone).
+-- Состояние хранится в БД, поэтому опрашивать задание можно через любой экземпляр приложения.
+-- store_ids и links_copied заполняются в той же транзакции, что и сами копии
+CREATE TABLE IF NOT EXISTS store_clone_jobs
+(
+    id              UUID PRIMARY KEY,
+    source_store_id UUID        NOT NULL,
+    copies          INT         NOT NULL CHECK (copies > 0),
+    status          VARCHAR(16) NOT NULL,
+    store_ids       UUID[],
+    links_copied    BIGINT,
+    error           TEXT,
+    created_at      TIMESTAMP   NOT NULL,
+    started_at      TIMESTAMP,
+    finished_at     TIMESTAMP
+);
@@ -0,0 +1,23 @@
+-- Инкрементальная синхронизация (GET /stores/sync, /suppliers/sync): изменённые после отметки записи
+-- читаются по индексу (updated_at, id) в порядке изменения, без сканирования таблицы
+CREATE INDEX IF NOT EXISTS idx_stores_updated_at_id ON stores (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_suppliers_updated_at_id ON suppliers (updated_at, id);
+
+-- Записи, вставленные SQL-запросом без updated_at, тоже должны попадать в синхронизацию
+ALTER TABLE stores ALTER COLUMN updated_at SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE suppliers ALTER COLUMN updated_at SET DEFAULT LOCALTIMESTAMP;
+UPDATE stores SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
+UPDATE suppliers SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
+
+-- Удалённые магазины и поставщики удаляются из таблиц физически: об удалении клиентам синхронизации
+-- сообщает отметка в tombstones. Отметки старше store.sync.tombstone-retention удаляются, клиент
+-- с более старой отметкой синхронизации получает полный список заново
+CREATE TABLE IF NOT EXISTS tombstones
+(
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id   UUID        NOT NULL,
+    deleted_at  TIMESTAMP   NOT NULL,
+    PRIMARY KEY (entity_type, entity_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tombstones_entity_type_deleted_at ON tombstones (entity_type, deleted_at, entity_id);
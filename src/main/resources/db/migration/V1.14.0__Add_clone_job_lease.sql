@@ -0,0 +1,9 @@
+-- Аренда заданий клонирования: экземпляр, выполняющий задание или держащий его в очереди, продлевает
+-- heartbeat_at. Задание, аренду которого не продлевали дольше store.clone.lease (экземпляр упал или был
+-- убит), завершается с ошибкой, чтобы его не ждали вечно
+ALTER TABLE store_clone_jobs ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP;
+UPDATE store_clone_jobs SET heartbeat_at = COALESCE(started_at, created_at) WHERE heartbeat_at IS NULL;
+ALTER TABLE store_clone_jobs ALTER COLUMN heartbeat_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_store_clone_jobs_unfinished ON store_clone_jobs (heartbeat_at)
+    WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1 @@
+ALTER TABLE stores ADD COLUMN IF NOT EXISTS email TEXT;
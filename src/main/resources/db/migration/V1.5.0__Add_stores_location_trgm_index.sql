@@ -0,0 +1,4 @@
+-- Триграммный GIN-индекс для поиска магазинов по подстроке адреса (location LIKE '%улица%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_stores_location_trgm ON stores USING GIN (location gin_trgm_ops);
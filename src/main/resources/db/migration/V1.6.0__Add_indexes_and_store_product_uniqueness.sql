@@ -0,0 +1,25 @@
+-- Индексы под запросы репозиториев, которые до этого выполнялись последовательным сканированием
+
+-- Связь магазин-товар должна быть уникальной: удаляем накопившиеся дубли, оставляя одну запись
+DELETE FROM store_products a
+    USING store_products b
+WHERE a.store_id = b.store_id
+  AND a.product_id = b.product_id
+  AND a.id > b.id;
+
+-- Уникальный индекс (store_id, product_id) обслуживает и StoreProductRepository.findByStoreId,
+-- поэтому отдельный индекс по store_id не нужен
+ALTER TABLE store_products
+    ADD CONSTRAINT uq_store_products_store_id_product_id UNIQUE (store_id, product_id);
+
+-- countStoresByProductId и поиск уникальных товаров (GROUP BY product_id)
+CREATE INDEX IF NOT EXISTS idx_store_products_product_id ON store_products (product_id);
+
+-- StoreRepository.findByLocation (точное совпадение; поиск по подстроке — idx_stores_location_trgm)
+CREATE INDEX IF NOT EXISTS idx_stores_location ON stores (location);
+
+-- Список магазинов по имени и постраничный обход по ключу (name, id)
+CREATE INDEX IF NOT EXISTS idx_stores_name_id ON stores (name, id);
+
+-- SupplierRepository.findByAddress
+CREATE INDEX IF NOT EXISTS idx_suppliers_address ON suppliers (address);
@@ -0,0 +1,95 @@
+-- Полнотекстовый поиск по магазинам (название, адрес) и товарам (название, категория).
+
+-- Сокращения адресов («ул.», «д.», «пр.» ...) есть почти в каждой строке и ничего не отбирают,
+-- поэтому работают как стоп-слова: убираются и из индексируемого текста, и из запроса
+CREATE OR REPLACE FUNCTION search_text(source TEXT) RETURNS TEXT AS $$
+    SELECT regexp_replace(coalesce(source, ''),
+                          '\m(ул|улица|пр|пр-т|просп|пер|пл|наб|б-р|ш|д|г|стр|корп)\M\.?', ' ', 'gi');
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE;
+
+-- tsvector — генерируемые колонки, Postgres пересчитывает их сам при INSERT/UPDATE.
+-- Название весит больше (A), чем адрес или категория (B).
+ALTER TABLE stores
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', search_text(name)), 'A') ||
+        setweight(to_tsvector('russian', search_text(location)), 'B')
+    ) STORED;
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', search_text(name)), 'A') ||
+        setweight(to_tsvector('russian', search_text(category)), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_stores_search_vector ON stores USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Словарь слов из названий, адресов и категорий для исправления опечаток в запросе.
+-- Нечёткое сравнение идёт по словарю (тысячи слов), а не по миллиону строк stores:
+-- слово запроса заменяется ближайшим по триграммам словом словаря, затем выполняется полнотекстовый поиск
+CREATE TABLE IF NOT EXISTS search_words
+(
+    word TEXT PRIMARY KEY
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_words_trgm ON search_words USING GIST (word gist_trgm_ops);
+
+-- Слова короче трёх букв и числа (номера домов) в словарь не попадают: исправлять в них нечего
+CREATE OR REPLACE FUNCTION add_search_words(source TEXT) RETURNS VOID AS $$
+    INSERT INTO search_words (word)
+    SELECT DISTINCT w
+    FROM regexp_split_to_table(lower(search_text(source)), '\W+') w
+    WHERE length(w) > 2
+      AND w !~ '^\d+$'
+    ON CONFLICT DO NOTHING;
+$$ LANGUAGE sql;
+
+-- Триггеры уровня оператора: пакетная вставка или COPY-импорт обновляют словарь одним запросом
+CREATE OR REPLACE FUNCTION collect_store_search_words() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM add_search_words(string_agg(concat_ws(' ', name, location), ' ')) FROM changed_rows;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION collect_product_search_words() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM add_search_words(string_agg(concat_ws(' ', name, category), ' ')) FROM changed_rows;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_stores_search_words_insert ON stores;
+CREATE TRIGGER trg_stores_search_words_insert
+    AFTER INSERT ON stores
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION collect_store_search_words();
+
+DROP TRIGGER IF EXISTS trg_stores_search_words_update ON stores;
+CREATE TRIGGER trg_stores_search_words_update
+    AFTER UPDATE ON stores
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION collect_store_search_words();
+
+DROP TRIGGER IF EXISTS trg_products_search_words_insert ON products;
+CREATE TRIGGER trg_products_search_words_insert
+    AFTER INSERT ON products
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION collect_product_search_words();
+
+DROP TRIGGER IF EXISTS trg_products_search_words_update ON products;
+CREATE TRIGGER trg_products_search_words_update
+    AFTER UPDATE ON products
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION collect_product_search_words();
+
+-- Слова уже существующих записей
+INSERT INTO search_words (word)
+SELECT DISTINCT w
+FROM (SELECT concat_ws(' ', name, location) AS source FROM stores
+      UNION ALL
+      SELECT concat_ws(' ', name, category) FROM products) s,
+     regexp_split_to_table(lower(search_text(s.source)), '\W+') w
+WHERE length(w) > 2
+  AND w !~ '^\d+$'
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,34 @@
+-- Лента изменений (outbox): сервисы пишут сюда событие в той же транзакции, что и само изменение.
+-- Откат транзакции отменяет и событие, коммит публикует его всем экземплярам через NOTIFY.
+-- entity_id пуст у массовых загрузок (IMPORTED), origin — экземпляр приложения, сделавший изменение
+CREATE TABLE IF NOT EXISTS change_events
+(
+    id          BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id   UUID,
+    operation   VARCHAR(16) NOT NULL,
+    origin      UUID        NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+-- Догрузка пропущенных событий после переподключения и очистка старых идут по времени
+CREATE INDEX IF NOT EXISTS idx_change_events_created_at ON change_events (created_at);
+
+-- NOTIFY внутри транзакции доставляется слушателям только после её коммита
+CREATE OR REPLACE FUNCTION notify_change_event() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('change_events', json_build_object(
+            'id', NEW.id,
+            'entityType', NEW.entity_type,
+            'entityId', NEW.entity_id,
+            'operation', NEW.operation,
+            'origin', NEW.origin,
+            'createdAt', NEW.created_at)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_change_events_notify ON change_events;
+CREATE TRIGGER trg_change_events_notify
+    AFTER INSERT ON change_events
+    FOR EACH ROW EXECUTE FUNCTION notify_change_event();
@@ -0,0 +1,4 @@
+-- updated_at раньше не заполнялся (аудит JPA не был включён): строкам без даты ставим время миграции,
+-- чтобы у всех записей были ETag и Last-Modified
+UPDATE stores SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
+UPDATE suppliers SET updated_at = LOCALTIMESTAMP WHERE updated_at IS NULL;
@@ -1,8 +1,9 @@
 -- =====================================================
--- Миграция V1.3.0: Заполнение тестовыми данными
+-- Повторяемая миграция: заполнение тестовыми данными
 -- =====================================================
 -- Эта миграция заполняет все таблицы тестовыми данными для демонстрации функциональности,
--- создает магазины, товары и связи между ними
+-- создает магазины, товары и связи между ними.
+-- Подключается только в профиле local (spring.flyway.locations) и перевыполняется при изменении файла
 
 -- Очистка существующих данных (если есть)
 DELETE FROM store_products;
@@ -2,11 +2,13 @@ package com.example.store;
 
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class TestContainerInitialization {
 
@@ -21,9 +23,13 @@ public class TestContainerInitialization {
 
     @DynamicPropertySource
     public static void setupProperties(final DynamicPropertyRegistry registry) {
-        registry.add("spring.datasource.url", () -> "jdbc:tc:postgresql:15:///integration-tests-db");
+        // JDBC и R2DBC (профиль reactive) подключаются к одному и тому же запущенному контейнеру
+        registry.add("spring.datasource.url", postgresqlContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgresqlContainer::getUsername);
         registry.add("spring.datasource.password", postgresqlContainer::getPassword);
+        registry.add("store.reactive.url", () -> "r2dbc:postgresql://" + postgresqlContainer.getHost() + ":" +
+                postgresqlContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" +
+                postgresqlContainer.getDatabaseName());
     }
 
 }
\ No newline at end of file
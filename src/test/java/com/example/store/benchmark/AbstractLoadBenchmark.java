@@ -0,0 +1,116 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузочное сравнение режимов обработки запросов: CONCURRENCY клиентов одновременно
+ * запрашивают поиск магазинов по адресу (запрос в БД на каждый вызов).
+ * Пул соединений в обоих режимах одинаковый ({@link #POOL_SIZE}, {@link #CONNECTION_TIMEOUT}) и совпадает
+ * с профилями virtual-threads и prod, чтобы сравнивалась только модель потоков.
+ */
+abstract class AbstractLoadBenchmark extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractLoadBenchmark.class);
+
+    static final String POOL_SIZE = "spring.datasource.hikari.maximum-pool-size=10";
+    static final String CONNECTION_TIMEOUT = "spring.datasource.hikari.connection-timeout=5000";
+
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final String LOCATION = "ул. Ленина";
+
+    private final AtomicInteger errors = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE stores");
+    }
+
+    @Test
+    void findStoreByLocation() throws Exception {
+
+        jdbcTemplate.execute("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), 'store-' || g, CASE WHEN g % 100 = 0 THEN '" + LOCATION + "' " +
+                "ELSE 'ул. Тверская, ' || g END, 'store' || g || '@example.com' FROM generate_series(1, 10000) g");
+
+        URI uri = URI.create("http://localhost:" + port + "/stores/location/" +
+                URLEncoder.encode(LOCATION, StandardCharsets.UTF_8).replace("+", "%20"));
+        HttpClient client = HttpClient.newBuilder().build();
+
+        run(client, uri, CONCURRENCY); // прогрев
+        errors.set(0);
+
+        long start = System.nanoTime();
+        List<Long> latencies = run(client, uri, CONCURRENCY * REQUESTS_PER_CLIENT);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Collections.sort(latencies);
+
+        log.info("{}: {} requests, {} concurrent clients, {} req/s, p50={} ms, p99={} ms, errors={}",
+                getClass().getSimpleName(), latencies.size(), CONCURRENCY,
+                latencies.size() * 1_000_000_000L / elapsedNanos,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), errors.getAndSet(0));
+
+    }
+
+    private List<Long> run(HttpClient client, URI uri, int requests) throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        List<Future<Long>> futures = new ArrayList<>(requests);
+
+        // Клиенты на виртуальных потоках, чтобы ограничением была не генерация нагрузки, а сервер
+        try (ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < requests; i++) {
+                futures.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return System.nanoTime() - start;
+                }));
+            }
+        }
+
+        List<Long> latencies = new ArrayList<>(requests);
+        for (Future<Long> future : futures) {
+            latencies.add(future.get());
+        }
+
+        return latencies;
+
+    }
+
+    private static long percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+}
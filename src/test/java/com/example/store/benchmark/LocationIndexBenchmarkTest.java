@@ -0,0 +1,123 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.index.LocationIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Объём и скорость индекса адресов в памяти на 1M магазинов, 100k товаров и 2M связей
+ * (8 городов, 20 улиц, 500 домов на улице). Запросы от точного адреса (~100 магазинов) до целой улицы (50 000).
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=LocationIndexBenchmarkTest}
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"store.location-index.enabled=true", "spring.jpa.show-sql=false"})
+class LocationIndexBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationIndexBenchmarkTest.class);
+
+    private static final int STORES = 1_000_000;
+    private static final int PRODUCTS = 100_000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @BeforeAll
+    void seedAndBuild() {
+
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), 'store-' || g, " +
+                "(ARRAY['Москва','Казань','Самара','Омск','Тула','Пермь','Уфа','Томск'])[1 + (g / 7) % 8] || ', ' || " +
+                "(ARRAY['ул. Ленина','ул. Тверская','Невский проспект','ул. Баумана','ул. Гагарина','ул. Мира'," +
+                "'ул. Садовая','ул. Пушкина','ул. Кирова','ул. Советская','ул. Победы','ул. Лесная','ул. Школьная'," +
+                "'ул. Молодёжная','ул. Чехова','ул. Горького','ул. Островского','ул. Некрасова','ул. Суворова'," +
+                "'ул. Кутузова'])[1 + (g / 3) % 20] || ', ' || (g % 500), " +
+                "'store' || g || '@example.com' FROM generate_series(1, ?) g", STORES);
+
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) " +
+                "SELECT gen_random_uuid(), 'product-' || g, g % 1000 + 0.99, 'bench' FROM generate_series(1, ?) g",
+                PRODUCTS);
+
+        // Каждый магазин продаёт два товара
+        for (int offset = 0; offset < 2; offset++) {
+            jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) " +
+                    "SELECT gen_random_uuid(), s.id, p.id " +
+                    "FROM (SELECT id, (row_number() OVER () * 2 + ?) % ? AS product_rn FROM stores) s " +
+                    "JOIN (SELECT id, row_number() OVER () - 1 AS rn FROM products) p ON p.rn = s.product_rn",
+                    offset, PRODUCTS);
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+
+        locationIndex.rebuild();
+
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapAfter = usedHeap();
+
+        log.info("Location index: stores={}, products={}, build={} ms, heap delta={} MB, estimated structures={} MB",
+                STORES, PRODUCTS, buildMillis, (heapAfter - heapBefore) / (1024 * 1024),
+                locationIndex.sizeInBytes() / (1024 * 1024));
+
+    }
+
+    @AfterAll
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE store_products, products, stores");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Казань, ул. Тверская, 103", "Казань, ул. Тверская", "ул. Ленина"})
+    void findProductsByLocation(String street) {
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            locationIndex.findProductsByLocation(street);
+        }
+
+        long[] timings = new long[MEASURED_RUNS];
+        int resultSize = 0;
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            resultSize = locationIndex.findProductsByLocation(street).orElseThrow().size();
+            timings[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(timings);
+
+        log.info("findProductsByLocation '{}': products={}, median={} us, p99={} us, max={} us",
+                street, resultSize, timings[MEASURED_RUNS / 2] / 1_000,
+                timings[MEASURED_RUNS * 99 / 100] / 1_000, timings[MEASURED_RUNS - 1] / 1_000);
+
+        Assertions.assertTrue(resultSize > 0);
+
+    }
+
+    private static long usedHeap() {
+
+        System.gc();
+        System.gc();
+
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+
+    }
+
+}
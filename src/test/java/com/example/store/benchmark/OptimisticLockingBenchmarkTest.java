@@ -0,0 +1,180 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Конкурентные изменения «горячих» магазинов через HTTP: CLIENTS клиентов делают чтение-изменение-запись
+ * (GET, затем PUT с увеличенным на 1 счётчиком в названии) над HOT_STORES магазинами.
+ * С If-Match конфликт даёт 412 и повтор с новым GET, итоговые счётчики равны числу успешных PUT.
+ * Без If-Match часть изменений молча теряется — разница и есть потерянные обновления.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=OptimisticLockingBenchmarkTest}
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class OptimisticLockingBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockingBenchmarkTest.class);
+
+    private static final int CLIENTS = 32;
+    private static final int HOT_STORES = 4;
+    private static final int UPDATES_PER_CLIENT = 25;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void conditionalUpdates_thenNoLostUpdates() throws Exception {
+
+        Result result = run(true);
+
+        Assertions.assertEquals(result.succeeded(), result.finalTotal());
+
+    }
+
+    @Test
+    void blindUpdates_thenLostUpdatesCounted() throws Exception {
+
+        Result result = run(false);
+
+        Assertions.assertTrue(result.finalTotal() <= result.succeeded());
+
+    }
+
+    private Result run(boolean ifMatch) throws Exception {
+
+        List<UUID> stores = new ArrayList<>();
+        for (int i = 0; i < HOT_STORES; i++) {
+            stores.add(storeRepository.saveAndFlush(new Store(null, "0", "ул. Ленина, " + i,
+                    "hot" + i + "@example.com", null, null)).getId());
+        }
+
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS, Thread.ofVirtual().factory())) {
+            for (int c = 0; c < CLIENTS; c++) {
+                UUID storeId = stores.get(c % HOT_STORES);
+                futures.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    for (int i = 0; i < UPDATES_PER_CLIENT; i++) {
+                        latencies.add(increment(storeId, ifMatch, conflicts));
+                    }
+                    return latencies;
+                }));
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Long> latencies = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            latencies.addAll(future.get());
+        }
+        Collections.sort(latencies);
+
+        long finalTotal = 0;
+        for (UUID storeId : stores) {
+            finalTotal += Long.parseLong(storeRepository.findById(storeId).orElseThrow().getName());
+        }
+
+        Result result = new Result(latencies.size(), finalTotal);
+
+        log.info("{} updates: {} clients on {} stores, {} updates/s, conflicts (retries)={}, lost updates={}, " +
+                        "p50={} ms, p99={} ms",
+                ifMatch ? "If-Match" : "Blind", CLIENTS, HOT_STORES,
+                latencies.size() * 1_000_000_000L / elapsedNanos, conflicts.get(),
+                result.succeeded() - result.finalTotal(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+
+        return result;
+
+    }
+
+    // Одно успешное увеличение счётчика: при конфликте (412 или 409) — повтор с новым чтением
+    private long increment(UUID storeId, boolean ifMatch, AtomicInteger conflicts) throws Exception {
+
+        long start = System.nanoTime();
+        URI uri = URI.create("http://localhost:" + port + "/stores");
+
+        while (true) {
+            HttpResponse<String> current = client.send(HttpRequest.newBuilder(uri.resolve("/stores/GET/" + storeId))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode store = objectMapper.readTree(current.body());
+
+            String body = objectMapper.createObjectNode()
+                    .put("name", String.valueOf(store.get("name").asLong() + 1))
+                    .put("location", store.get("location").asText())
+                    .put("email", store.get("email").asText())
+                    .toString();
+
+            HttpRequest.Builder update = HttpRequest.newBuilder(uri.resolve("/stores/PUT/" + storeId))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+            if (ifMatch) {
+                update.header("If-Match", current.headers().firstValue("ETag").orElseThrow());
+            }
+
+            int status = client.send(update.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+
+            if (status == 200) {
+                return System.nanoTime() - start;
+            }
+            if (status != 412 && status != 409) {
+                throw new IllegalStateException("Unexpected status " + status);
+            }
+            conflicts.incrementAndGet();
+        }
+
+    }
+
+    private static long percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+    private record Result(long succeeded, long finalTotal) {
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.example.store.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Обработка запросов пулом платформенных потоков Tomcat (режим по умолчанию).
+ * Запуск: {@code mvn test -Pbenchmark -Dtest='*ThreadsLoadBenchmarkTest'}
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {AbstractLoadBenchmark.POOL_SIZE, AbstractLoadBenchmark.CONNECTION_TIMEOUT})
+class PlatformThreadsLoadBenchmarkTest extends AbstractLoadBenchmark {
+}
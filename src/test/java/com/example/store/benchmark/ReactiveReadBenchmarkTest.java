@@ -0,0 +1,151 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * /stores/all при CONCURRENCY одновременных клиентах: JSON-массив (JPA, весь список в памяти до ответа)
+ * против потока NDJSON (R2DBC, профиль reactive). Кроме пропускной способности и задержек пишет пиковую
+ * занятость кучи и пиковое число потоков. Пулы соединений JDBC и R2DBC одинаковые: 10 соединений, ожидание до 30 с.
+ * Сравнение при фиксированном бюджете памяти — с ограниченной кучей:
+ * {@code mvn test -Pbenchmark -Dtest=ReactiveReadBenchmarkTest -DargLine=-Xmx128m}
+ */
+@Tag("benchmark")
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "store.reactive.pool-size=10",
+                "store.reactive.acquire-timeout=30s"})
+class ReactiveReadBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadBenchmarkTest.class);
+
+    private static final int STORES = 5_000;
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    private final AtomicInteger errors = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), 'store-' || g, 'ул. Тверская, ' || g, 'store' || g || '@example.com' " +
+                "FROM generate_series(1, " + STORES + ") g");
+    }
+
+    @AfterAll
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE stores");
+    }
+
+    @Test
+    void findAllStores_json() throws Exception {
+        measure(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Test
+    void findAllStores_ndjson() throws Exception {
+        measure(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    private void measure(String accept) throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/stores/all"))
+                .header("Accept", accept)
+                .GET().build();
+
+        run(request, CONCURRENCY); // прогрев
+        errors.set(0);
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        List<Long> latencies = run(request, CONCURRENCY * REQUESTS_PER_CLIENT);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Collections.sort(latencies);
+        long peakHeapMb = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20;
+
+        log.info("{}: {} stores, {} requests, {} concurrent clients, {} req/s, p50={} ms, p99={} ms, " +
+                        "peak heap={} MiB of {} MiB, peak threads={}, errors={}",
+                accept, STORES, latencies.size(), CONCURRENCY, latencies.size() * 1_000_000_000L / elapsedNanos,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), peakHeapMb,
+                Runtime.getRuntime().maxMemory() >> 20, ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                errors.getAndSet(0));
+
+    }
+
+    private List<Long> run(HttpRequest request, int requests) throws Exception {
+
+        List<Future<Long>> futures = new ArrayList<>(requests);
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < requests; i++) {
+                futures.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return System.nanoTime() - start;
+                }));
+            }
+        }
+
+        List<Long> latencies = new ArrayList<>(requests);
+        for (Future<Long> future : futures) {
+            try {
+                latencies.add(future.get());
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+
+        return latencies;
+
+    }
+
+    private static long percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.service.SearchService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Задержка поиска магазинов (/stores/search) на 1M магазинов: 10 сетей, 8 городов, 20 улиц.
+ * Общие запросы («ул. Ленена» — 50 000 совпадений) и точные («Магнит 4241»), с опечатками.
+ * Вывод SQL в консоль выключен, как в профиле prod.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=SearchBenchmarkTest}
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class SearchBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchBenchmarkTest.class);
+
+    private static final int STORES = 1_000_000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SearchService service;
+
+    @BeforeAll
+    void seed() {
+
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), " +
+                "(ARRAY['Пятёрочка','Магнит','Перекрёсток','Лента','Дикси','ВкусВилл','Ашан','Спар','Азбука вкуса','Окей'])" +
+                "[1 + g % 10] || ' ' || g, " +
+                "(ARRAY['Москва','Казань','Самара','Омск','Тула','Пермь','Уфа','Томск'])[1 + (g / 7) % 8] || ', ' || " +
+                "(ARRAY['ул. Ленина','ул. Тверская','Невский проспект','ул. Баумана','ул. Гагарина','ул. Мира'," +
+                "'ул. Садовая','ул. Пушкина','ул. Кирова','ул. Советская','ул. Победы','ул. Лесная','ул. Школьная'," +
+                "'ул. Молодёжная','ул. Чехова','ул. Горького','ул. Островского','ул. Некрасова','ул. Суворова'," +
+                "'ул. Кутузова'])[1 + (g / 3) % 20] || ', ' || (g % 500), " +
+                "'store' || g || '@example.com' FROM generate_series(1, ?) g", STORES);
+
+        jdbcTemplate.execute("VACUUM ANALYZE stores");
+
+    }
+
+    @AfterAll
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE stores");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ул. Ленена", "Пятерочка Ленена Казань", "Тверкая", "Магнит 4241"})
+    void searchStores(String query) {
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            service.searchStores(query, 0, 20);
+        }
+
+        long[] timings = new long[MEASURED_RUNS];
+        int resultSize = 0;
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            resultSize = service.searchStores(query, 0, 20).size();
+            timings[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(timings);
+
+        log.info("searchStores '{}': stores={}, results={}, median={} ms, p95={} ms, max={} ms",
+                query, STORES, resultSize, timings[MEASURED_RUNS / 2] / 1_000_000,
+                timings[MEASURED_RUNS * 95 / 100] / 1_000_000, timings[MEASURED_RUNS - 1] / 1_000_000);
+
+        Assertions.assertTrue(resultSize > 0);
+
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.readmodel.ProductReadModel;
+import com.example.store.repository.ProductRepository;
+import com.example.store.service.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Задержка /stores/products/unique на 10k, 100k и 1M товаров: по исходным таблицам и по витрине
+ * product_store_counts (плюс время её пересчёта). Половина товаров продаётся в одном магазине, половина — в двух.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=UniqueProductsBenchmarkTest}
+ */
+@Tag("benchmark")
+@SpringBootTest
+class UniqueProductsBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueProductsBenchmarkTest.class);
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StoreService service;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductReadModel readModel;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE store_products, products, stores");
+        readModel.refresh();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void findUniqueProducts(int productCount) {
+
+        seed(productCount);
+
+        measure("findUniqueProducts", productCount, () -> service.findUniqueProducts().size());
+
+    }
+
+    // Тот же отчёт по витрине product_store_counts и цена её пересчёта
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void findUniqueProductsFromReadModel(int productCount) {
+
+        seed(productCount);
+
+        long start = System.nanoTime();
+        readModel.refresh();
+        log.info("read model refresh: products={}, {} ms", productCount, (System.nanoTime() - start) / 1_000_000);
+
+        measure("findUniqueProductsFromReadModel", productCount,
+                () -> productRepository.findUniqueProductsFromReadModel().size());
+
+    }
+
+    private void measure(String name, int productCount, IntSupplier query) {
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.getAsInt();
+        }
+
+        long[] timings = new long[MEASURED_RUNS];
+        int resultSize = 0;
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            resultSize = query.getAsInt();
+            timings[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(timings);
+
+        log.info("{}: products={}, unique={}, median={} ms, min={} ms, max={} ms",
+                name, productCount, resultSize, timings[MEASURED_RUNS / 2] / 1_000_000,
+                timings[0] / 1_000_000, timings[MEASURED_RUNS - 1] / 1_000_000);
+
+        Assertions.assertEquals(productCount / 2, resultSize);
+
+    }
+
+    private void seed(int productCount) {
+
+        jdbcTemplate.execute("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), 'store-' || g, 'ул. Ленина, ' || g, 'store' || g || '@example.com' " +
+                "FROM generate_series(1, 100) g");
+
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) " +
+                "SELECT gen_random_uuid(), 'product-' || g, g % 1000 + 0.99, 'bench' " +
+                "FROM generate_series(1, ?) g", productCount);
+
+        // Каждый товар в одном магазине, каждый второй — ещё и во втором
+        jdbcTemplate.execute("INSERT INTO store_products (id, store_id, product_id) " +
+                "SELECT gen_random_uuid(), s.id, p.id FROM (SELECT id, row_number() OVER () AS rn FROM products) p " +
+                "JOIN (SELECT id, row_number() OVER () - 1 AS rn FROM stores) s ON s.rn = p.rn % 100");
+        jdbcTemplate.execute("INSERT INTO store_products (id, store_id, product_id) " +
+                "SELECT gen_random_uuid(), s.id, p.id FROM (SELECT id, row_number() OVER () AS rn FROM products) p " +
+                "JOIN (SELECT id, row_number() OVER () - 1 AS rn FROM stores) s ON s.rn = (p.rn + 1) % 100 " +
+                "WHERE p.rn % 2 = 0");
+
+        jdbcTemplate.execute("ANALYZE");
+
+    }
+
+}
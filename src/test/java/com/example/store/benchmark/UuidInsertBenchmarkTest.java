@@ -0,0 +1,73 @@
+package com.example.store.benchmark;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.id.UuidV7;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Скорость вставки в таблицу с первичным ключом UUID: случайные v4 против упорядоченных по времени v7.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=UuidInsertBenchmarkTest}
+ */
+@Tag("benchmark")
+@SpringBootTest
+class UuidInsertBenchmarkTest extends TestContainerInitialization {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidInsertBenchmarkTest.class);
+
+    private static final int ROWS = 2_000_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS uuid_bench");
+    }
+
+    @Test
+    void insertRandomUuid() {
+        insert("v4", UUID::randomUUID);
+    }
+
+    @Test
+    void insertTimeOrderedUuid() {
+        insert("v7", UuidV7::next);
+    }
+
+    private void insert(String label, Supplier<UUID> ids) {
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS uuid_bench");
+        jdbcTemplate.execute("CREATE TABLE uuid_bench (id UUID PRIMARY KEY, name TEXT NOT NULL)");
+
+        long start = System.nanoTime();
+
+        for (int inserted = 0; inserted < ROWS; inserted += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new Object[]{ids.get(), "store-" + (inserted + i)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO uuid_bench (id, name) VALUES (?, ?)", batch);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size('uuid_bench_pkey')", Long.class);
+
+        log.info("UUID {} insert: {} rows in {} ms, {} rows/sec, primary key index {} MB",
+                label, ROWS, elapsedMillis, ROWS * 1_000L / Math.max(elapsedMillis, 1), indexBytes / (1024 * 1024));
+
+    }
+
+}
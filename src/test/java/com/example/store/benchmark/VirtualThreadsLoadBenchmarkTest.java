@@ -0,0 +1,16 @@
+package com.example.store.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Обработка запросов на виртуальных потоках (профиль virtual-threads).
+ * Запуск: {@code mvn test -Pbenchmark -Dtest='*ThreadsLoadBenchmarkTest'}
+ */
+@Tag("benchmark")
+@ActiveProfiles("virtual-threads")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {AbstractLoadBenchmark.POOL_SIZE, AbstractLoadBenchmark.CONNECTION_TIMEOUT})
+class VirtualThreadsLoadBenchmarkTest extends AbstractLoadBenchmark {
+}
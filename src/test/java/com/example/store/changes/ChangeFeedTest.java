@@ -0,0 +1,174 @@
+package com.example.store.changes;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.repository.StoreRepository;
+import com.example.store.request.StoreRequest;
+import com.example.store.service.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ChangeFeedTest extends TestContainerInitialization {
+
+    @TestConfiguration
+    static class ReceivedChangesConfig {
+
+        @Bean
+        ReceivedChanges receivedChanges() {
+            return new ReceivedChanges();
+        }
+
+    }
+
+    // События ленты, полученные этим экземпляром (в том числе свои)
+    static class ReceivedChanges {
+
+        final BlockingQueue<EntityChange> changes = new LinkedBlockingQueue<>();
+
+        @EventListener
+        void onChange(EntityChange change) {
+            changes.add(change);
+        }
+
+    }
+
+    @Autowired
+    private ReceivedChanges received;
+
+    @Autowired
+    private StoreService service;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void waitForListener() throws InterruptedException {
+
+        // Слушатель подключается в фоне после старта приложения: ждём, пока он начнёт получать события
+        UUID probe = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status ->
+                changeFeed.record(EntityType.SUPPLIER, probe, Operation.DELETED));
+
+        await(() -> received.changes.stream().anyMatch(change -> probe.equals(change.entityId())));
+        received.changes.clear();
+
+    }
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM change_events");
+    }
+
+    @Test
+    void updateById_thenEventCommittedWithChangeAndDeliveredByNotify() throws InterruptedException {
+
+        StoreResponseDto store = service.createStore(storeRequest("Пятёрочка"));
+        service.updateById(store.getId(), storeRequest("Перекрёсток"));
+
+        EntityChange created = received.changes.poll(5, TimeUnit.SECONDS);
+        EntityChange updated = received.changes.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(created);
+        assertNotNull(updated);
+        assertEquals(EntityType.STORE, created.entityType());
+        assertEquals(Operation.CREATED, created.operation());
+        assertEquals(store.getId(), created.entityId());
+        assertEquals(Operation.UPDATED, updated.operation());
+        assertEquals(changeFeed.nodeId(), updated.origin());
+        assertTrue(updated.id() > created.id());
+
+    }
+
+    @Test
+    void record_whenTransactionRolledBack_thenNoEvent() throws InterruptedException {
+
+        UUID storeId = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            changeFeed.record(EntityType.STORE, storeId, Operation.DELETED);
+            status.setRollbackOnly();
+        });
+
+        assertNull(received.changes.poll(2, TimeUnit.SECONDS));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM change_events WHERE entity_id = ?",
+                Integer.class, storeId));
+
+    }
+
+    @Test
+    void record_whenNoTransaction_thenThrow() {
+
+        assertThrows(RuntimeException.class,
+                () -> changeFeed.record(EntityType.STORE, UUID.randomUUID(), Operation.UPDATED));
+
+    }
+
+    @Test
+    void findById_whenStoreChangedByAnotherNode_thenCachedValueEvicted() throws InterruptedException {
+
+        StoreResponseDto store = service.createStore(storeRequest("Пятёрочка"));
+        assertEquals("Пятёрочка", service.findById(store.getId()).getName());
+
+        // Другой экземпляр: изменение и событие со своим origin, мимо кэша этого экземпляра
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE stores SET name = 'Лента' WHERE id = ?", store.getId());
+            jdbcTemplate.update("INSERT INTO change_events (entity_type, entity_id, operation, origin) " +
+                    "VALUES ('STORE', ?, 'UPDATED', ?)", store.getId(), UUID.randomUUID());
+        });
+
+        await(() -> "Лента".equals(service.findById(store.getId()).getName()));
+
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 s");
+            Thread.sleep(20);
+        }
+
+    }
+
+    private static StoreRequest storeRequest(String name) {
+
+        StoreRequest request = new StoreRequest();
+        request.setName(name);
+        request.setLocation("Москва, ул. Ленина, 1");
+        request.setEmail(UUID.randomUUID() + "@example.com");
+
+        return request;
+
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.example.store.changes;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.ChangeEventDto;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.repository.StoreRepository;
+import com.example.store.repository.SupplierRepository;
+import com.example.store.request.StoreRequest;
+import com.example.store.request.SupplierRequest;
+import com.example.store.service.StoreService;
+import com.example.store.service.SupplierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Буфер повтора уменьшен, чтобы проверить вытеснение; частый heartbeat показывает, что подписка уже действует
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "store.change-stream.replay-size=5",
+        "store.change-stream.heartbeat=100ms"
+})
+class ChangeStreamTest extends TestContainerInitialization {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Client> clients = new ArrayList<>();
+
+    @AfterEach
+    void clear() {
+        clients.forEach(Client::close);
+        storeRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    void streamChanges_thenCommittedChangesPushedInOrder() throws Exception {
+
+        Client stream = subscribe("", null);
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+        storeService.updateById(store.getId(), storeRequest("Перекрёсток"));
+        StoreResponseDto copy = storeService.copy(store.getId());
+        UUID supplierId = supplierService.createSupplier(new SupplierRequest("Русский стандарт",
+                UUID.randomUUID() + "@example.com", null, null, null)).getId();
+
+        List<Event> events = stream.next(4);
+
+        assertEquals(List.of("STORE", "STORE", "STORE", "SUPPLIER"), events.stream().map(Event::name).toList());
+        assertEquals(List.of(store.getId(), store.getId(), copy.getId(), supplierId),
+                events.stream().map(event -> event.change().getEntityId()).toList());
+        assertEquals(List.of(EntityChange.Operation.CREATED, EntityChange.Operation.UPDATED,
+                        EntityChange.Operation.COPIED, EntityChange.Operation.CREATED),
+                events.stream().map(event -> event.change().getOperation()).toList());
+        assertEquals(Long.parseLong(events.get(0).id()), events.get(0).change().getId());
+
+    }
+
+    @Test
+    void streamChanges_whenTypeFiltered_thenOnlyThatType() throws Exception {
+
+        Client stream = subscribe("?types=SUPPLIER", null);
+
+        storeService.createStore(storeRequest("Пятёрочка"));
+        UUID supplierId = supplierService.createSupplier(new SupplierRequest("Русский стандарт",
+                UUID.randomUUID() + "@example.com", null, null, null)).getId();
+
+        Event event = stream.next(1).get(0);
+
+        assertEquals("SUPPLIER", event.name());
+        assertEquals(supplierId, event.change().getEntityId());
+
+    }
+
+    @Test
+    void streamChanges_whenLastEventIdInBuffer_thenMissedReplayed() throws Exception {
+
+        Client first = subscribe("", null);
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+        storeService.updateById(store.getId(), storeRequest("Перекрёсток"));
+        storeService.deleteStore(store.getId());
+
+        List<Event> events = first.next(3);
+        first.close();
+
+        // Клиент получил только первое событие и переподключился
+        Client resumed = subscribe("", events.get(0).id());
+
+        assertEquals(events.subList(1, 3).stream().map(Event::id).toList(),
+                resumed.next(2).stream().map(Event::id).toList());
+
+    }
+
+    @Test
+    void streamChanges_whenLastEventIdEvicted_thenReset() throws Exception {
+
+        Client first = subscribe("", null);
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+        for (int i = 0; i < 5; i++) {
+            storeService.updateById(store.getId(), storeRequest("Перекрёсток " + i));
+        }
+
+        List<Event> events = first.next(6);
+
+        Client resumed = subscribe("", events.get(0).id());
+        Event reset = resumed.next(1).get(0);
+
+        assertEquals(ChangeStream.RESET_EVENT, reset.name());
+        assertEquals(events.get(5).id(), reset.id());
+
+    }
+
+    @Test
+    void streamChanges_whenLastEventIdNotInBuffer_thenResetEvenIfWithinRange() throws Exception {
+
+        Client first = subscribe("", null);
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+        // Пропуск в нумерации: так выглядят id событий, которые ещё не закоммичены или получены другим экземпляром
+        jdbcTemplate.queryForObject("SELECT setval('change_events_id_seq', nextval('change_events_id_seq') + 100)",
+                Long.class);
+        storeService.updateById(store.getId(), storeRequest("Перекрёсток"));
+
+        List<Event> events = first.next(2);
+
+        Client resumed = subscribe("", Long.toString(Long.parseLong(events.get(0).id()) + 50));
+        Event reset = resumed.next(1).get(0);
+
+        assertEquals(ChangeStream.RESET_EVENT, reset.name());
+        assertEquals(events.get(1).id(), reset.id());
+
+    }
+
+        private Client subscribe(String query, String lastEventId) throws Exception {
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes" + query))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+
+        Client stream = new Client(client.send(request.build(), HttpResponse.BodyHandlers.ofLines()));
+        clients.add(stream);
+
+        assertTrue(stream.awaitHeartbeat(), "Subscription was not established within 10 s");
+
+        return stream;
+
+    }
+
+    private static StoreRequest storeRequest(String name) {
+
+        StoreRequest request = new StoreRequest();
+        request.setName(name);
+        request.setLocation("Москва, ул. Ленина, 1");
+        request.setEmail(UUID.randomUUID() + "@example.com");
+
+        return request;
+
+    }
+
+    private record Event(String id, String name, ChangeEventDto change) {
+    }
+
+    // Разбор потока SSE: события (id, event, data) и heartbeat-комментарии
+    private class Client {
+
+        private final HttpResponse<Stream<String>> response;
+        private final BlockingQueue<Event> received = new LinkedBlockingQueue<>();
+        private final CountDownLatch heartbeat = new CountDownLatch(1);
+        private final Thread reader;
+
+        Client(HttpResponse<Stream<String>> response) {
+
+            assertEquals(200, response.statusCode());
+            this.response = response;
+            this.reader = Thread.ofVirtual().start(this::read);
+
+        }
+
+        private void read() {
+
+            String id = null;
+            String name = null;
+            String data = null;
+
+            for (String line : (Iterable<String>) response.body()::iterator) {
+                if (line.startsWith(":")) {
+                    heartbeat.countDown();
+                } else if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data = line.substring(5);
+                } else if (line.isEmpty() && name != null) {
+                    received.add(new Event(id, name, parse(name, data)));
+                    id = null;
+                    name = null;
+                    data = null;
+                }
+            }
+
+        }
+
+        private ChangeEventDto parse(String name, String data) {
+
+            if (ChangeStream.RESET_EVENT.equals(name)) {
+                return null;
+            }
+
+            try {
+                return objectMapper.readValue(data, ChangeEventDto.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+
+        }
+
+        boolean awaitHeartbeat() throws InterruptedException {
+            return heartbeat.await(10, TimeUnit.SECONDS);
+        }
+
+        List<Event> next(int count) throws InterruptedException {
+
+            List<Event> events = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+            while (events.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "Received " + events + ", expected " + count + " events");
+                Event event = received.poll(100, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+
+            return events;
+
+        }
+
+        void close() {
+            response.body().close();
+            reader.interrupt();
+        }
+
+    }
+
+}
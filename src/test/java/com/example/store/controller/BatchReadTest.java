@@ -0,0 +1,92 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import com.example.store.service.BatchLoader;
+import com.example.store.sql.SqlStatementMetricsFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class BatchReadTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void findStoresByIds_thenOneStatementForWholePage() throws Exception {
+
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            stores.add(new Store(null, "Магазин " + i, "ул. Ленина, " + i, "store" + i + "@ya.ru", null, null));
+        }
+        List<UUID> ids = new ArrayList<>(storeRepository.saveAllAndFlush(stores).stream().map(Store::getId).toList());
+        UUID unknown = UUID.randomUUID();
+        ids.add(1, unknown);
+
+        mockMvc.perform(post("/stores/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(200))
+                .andExpect(jsonPath("$.items[0].id").value(ids.get(0).toString()))
+                .andExpect(jsonPath("$.items[1].id").value(ids.get(2).toString()))
+                .andExpect(jsonPath("$.missing[0]").value(unknown.toString()));
+
+        DistributionSummary summary = meterRegistry.get(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("uri", "/stores/batch")
+                .summary();
+
+        assertEquals(1.0, summary.totalAmount());
+
+    }
+
+    @Test
+    void findSuppliersByIds_whenTooManyIds_thenBadRequest() throws Exception {
+
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(BatchLoader.MAX_IDS + 1).toList();
+
+        mockMvc.perform(post("/suppliers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+
+    }
+
+}
@@ -0,0 +1,276 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.dto.SupplierResponseDto;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import com.example.store.repository.SupplierRepository;
+import com.example.store.request.StoreRequest;
+import com.example.store.request.SupplierRequest;
+import com.example.store.service.StoreService;
+import com.example.store.service.SupplierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalRequestsTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    void createStore_thenUpdatedAtFilledByAuditing() {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        assertNotNull(store.getUpdatedAt());
+        assertEquals(store.getUpdatedAt(), storeRepository.findUpdatedAtById(store.getId()).orElseThrow());
+
+    }
+
+    @Test
+    void findStoreById_whenETagMatches_thenNotModifiedWithoutBody() throws Exception {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        String etag = mockMvc.perform(get("/stores/GET/{id}", store.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.name").value("Пятёрочка"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        assertFalse(etag.startsWith("W/"));
+
+        mockMvc.perform(get("/stores/GET/{id}", store.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+    }
+
+    @Test
+    void findStoreById_whenStoreUpdatedAfterETagIssued_thenFullResponseWithNewETag() throws Exception {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        String etag = mockMvc.perform(get("/stores/GET/{id}", store.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        storeService.updateById(store.getId(), storeRequest("Перекрёсток"));
+
+        String newEtag = mockMvc.perform(get("/stores/GET/{id}", store.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Перекрёсток"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, newEtag);
+
+    }
+
+    @Test
+    void findStoreById_whenStoreMissing_thenNotAnsweredNotModified() throws Exception {
+
+        // Версии нет — ответ строится как без заголовка, поиск магазина завершается ошибкой
+        mockMvc.perform(get("/stores/GET/{id}", UUID.randomUUID()).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("NOT_FOUND"));
+
+    }
+
+    @Test
+    void findSupplierById_whenNotModifiedSinceLastModified_thenNotModified() throws Exception {
+
+        SupplierResponseDto supplier = supplierService.createSupplier(new SupplierRequest("Русский стандарт",
+                "rs@example.com", "+79990000000", "пр. Ленина", "www.rs.example.com"));
+
+        String lastModified = mockMvc.perform(get("/suppliers/GET/{id}", supplier.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/suppliers/GET/{id}", supplier.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+
+    }
+
+    @Test
+    void findAllStores_whenStoreDeleted_thenListETagChanges() throws Exception {
+
+        StoreResponseDto first = storeService.createStore(storeRequest("Пятёрочка"));
+        storeService.createStore(storeRequest("Магнит"));
+
+        String etag = mockMvc.perform(get("/stores/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/stores/sorted").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        storeService.deleteStore(first.getId());
+
+        mockMvc.perform(get("/stores/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+    }
+
+    @Test
+    void findAllStores_whenUpdateCommitsWithOlderUpdatedAt_thenListETagChanges() throws Exception {
+
+        StoreResponseDto first = storeService.createStore(storeRequest("Пятёрочка"));
+        storeService.createStore(storeRequest("Магнит"));
+
+        String etag = mockMvc.perform(get("/stores/all"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Изменение из транзакции, начатой раньше (или с экземпляра с отстающими часами):
+        // updated_at меньше максимального в таблице, число строк не меняется
+        jdbcTemplate.update("UPDATE stores SET name = 'Лента', version = version + 1, " +
+                "updated_at = (SELECT min(updated_at) FROM stores) - interval '1 hour' WHERE id = ?", first.getId());
+
+        String changed = mockMvc.perform(get("/stores/all").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, changed);
+
+    }
+
+    @Test
+    void updateStore_whenIfMatchIsCurrentVersion_thenUpdatedWithNewETag() throws Exception {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        String etag = mockMvc.perform(get("/stores/GET/{id}", store.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newEtag = mockMvc.perform(putStore(store.getId(), "Перекрёсток").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Перекрёсток"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(newEtag);
+        assertNotEquals(etag, newEtag);
+
+        // ETag из ответа PUT годится для следующего PUT без повторного GET
+        mockMvc.perform(putStore(store.getId(), "Лента").header(HttpHeaders.IF_MATCH, newEtag))
+                .andExpect(status().isOk());
+
+    }
+
+    @Test
+    void updateStore_whenIfMatchIsStale_thenPreconditionFailedAndStoreUnchanged() throws Exception {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        String etag = mockMvc.perform(get("/stores/GET/{id}", store.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        storeService.updateById(store.getId(), storeRequest("Магнит"));
+
+        mockMvc.perform(putStore(store.getId(), "Перекрёсток").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("PRECONDITION_FAILED"));
+
+        mockMvc.perform(putStore(store.getId(), "Перекрёсток").header(HttpHeaders.IF_MATCH, "W/" + etag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("Магнит", storeService.findById(store.getId()).getName());
+
+    }
+
+    @Test
+    void updateStore_whenNoIfMatch_thenUpdatedUnconditionally() throws Exception {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        mockMvc.perform(putStore(store.getId(), "Перекрёсток"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+
+    }
+
+    @Test
+    void saveAndFlush_whenRowChangedAfterRead_thenOptimisticLockingFailure() {
+
+        StoreResponseDto created = storeService.createStore(storeRequest("Пятёрочка"));
+        Store store = storeRepository.findById(created.getId()).orElseThrow();
+
+        // Параллельная запись успела раньше
+        jdbcTemplate.update("UPDATE stores SET name = 'Магнит', version = version + 1 WHERE id = ?", store.getId());
+
+        store.setName("Перекрёсток");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> storeRepository.saveAndFlush(store));
+        assertEquals("Магнит", storeRepository.findById(store.getId()).orElseThrow().getName());
+
+    }
+
+    private MockHttpServletRequestBuilder putStore(UUID id, String name)
+            throws Exception {
+        return put("/stores/PUT/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(storeRequest(name)));
+    }
+
+    private static StoreRequest storeRequest(String name) {
+
+        StoreRequest request = new StoreRequest();
+        request.setName(name);
+        request.setLocation("Москва, ул. Ленина, 1");
+        request.setEmail(UUID.randomUUID() + "@example.com");
+
+        return request;
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.StoreProductRepository;
+import com.example.store.repository.StoreRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CreateProductTest extends TestContainerInitialization {
+
+    private static final String VALID = "{\"Наименование товара\": \"Молоко\", \"Цена товара\": 89.90}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreProductRepository storeProductRepository;
+
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void clear() {
+        storeProductRepository.deleteAll();
+        productRepository.deleteAllById(createdProducts);
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void createProduct_whenValid_thenCreated() throws Exception {
+
+        UUID storeId = createStore();
+        long productsBefore = productRepository.count();
+
+        createdProducts.add(idOf(mockMvc.perform(json(post("/stores/product/{storeId}", storeId), VALID))
+                .andExpect(status().isOk())
+                .andReturn()));
+        createdProducts.add(idOf(mockMvc.perform(json(post("/stores/product").param("storeIds", storeId.toString()),
+                        VALID))
+                .andExpect(status().isOk())
+                .andReturn()));
+
+        assertEquals(productsBefore + 2, productRepository.count());
+
+    }
+
+    @Test
+    void createProduct_whenBodyInvalid_thenBadRequest() throws Exception {
+
+        UUID storeId = createStore();
+        long productsBefore = productRepository.count();
+
+        mockMvc.perform(json(post("/stores/product/{storeId}", storeId),
+                        "{\"Наименование товара\": \" \", \"Цена товара\": 89.90}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+        mockMvc.perform(json(post("/stores/product/{storeId}", storeId), "{\"Наименование товара\": \"Молоко\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+        mockMvc.perform(json(post("/stores/product").param("storeIds", storeId.toString()),
+                        "{\"Наименование товара\": \"\", \"Цена товара\": 89.90}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+
+        assertEquals(productsBefore, productRepository.count());
+
+    }
+
+    @Test
+    void createProductInStores_whenNoStores_thenBadRequest() throws Exception {
+
+        long productsBefore = productRepository.count();
+
+        mockMvc.perform(json(post("/stores/product").param("storeIds", ""), VALID))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(json(post("/stores/product"), VALID))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(productsBefore, productRepository.count());
+
+    }
+
+    private UUID createStore() {
+        return storeRepository.saveAndFlush(new Store(null, "Пятёрочка", "ул. Ленина", "mail@ya.ru", null, null))
+                .getId();
+    }
+
+    private static UUID idOf(MvcResult result) throws Exception {
+        return UUID.fromString(JsonPath.read(result.getResponse().getContentAsString(), "$.id"));
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+}
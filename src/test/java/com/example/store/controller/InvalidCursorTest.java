@@ -0,0 +1,43 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class InvalidCursorTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void findStoresPageByName_whenCursorMalformed_thenBadRequest() throws Exception {
+
+        mockMvc.perform(get("/stores/page").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"))
+                .andExpect(jsonPath("$.status").value(400));
+        mockMvc.perform(get("/stores/page").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+
+    }
+
+    @Test
+    void sync_whenWatermarkMalformed_thenBadRequest() throws Exception {
+
+        mockMvc.perform(get("/stores/sync").param("since", "not-a-watermark"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/suppliers/sync").param("since", "%%%"))
+                .andExpect(status().isBadRequest());
+
+    }
+
+}
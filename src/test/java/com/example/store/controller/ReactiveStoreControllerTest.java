@@ -0,0 +1,153 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.ProductResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("reactive")
+class ReactiveStoreControllerTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE store_products, products, stores");
+    }
+
+    @Test
+    void findAllStores_whenNdjsonAccepted_thenStreamedLinePerStore() throws Exception {
+
+        jdbcTemplate.execute("INSERT INTO stores (id, name, location, email) " +
+                "SELECT gen_random_uuid(), 'store-' || g, 'ул. Ленина, ' || g, 'store' || g || '@example.com' " +
+                "FROM generate_series(1, 1200) g");
+
+        String body = stream(get("/stores/all"));
+
+        assertEquals(1200, body.lines().count());
+
+        // Без NDJSON в Accept отвечает прежний обработчик одним JSON-массивом
+        mockMvc.perform(get("/stores/all").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(1200));
+
+    }
+
+    @Test
+    void productReports_whenNdjsonAccepted_thenSameProductsAsJson() throws Exception {
+
+        UUID first = insertStore("Москва, ул. Тверская, 1");
+        UUID second = insertStore("Москва, ул. Тверская, 2");
+        UUID other = insertStore("Москва, ул. Ленина, 3");
+        UUID shared = insertProduct("Хлеб", "50.00", first);
+        link(second, shared);
+        insertProduct("Кефир", "80.00", second);
+        insertProduct("Сыр", "300.00", other);
+
+        List<ProductResponseDto> byLocation = products(stream(get("/stores/product/by-location")
+                .param("location", "Тверская")));
+        List<ProductResponseDto> unique = products(stream(get("/stores/products/unique")));
+
+        assertEquals(List.of("Хлеб", "Кефир"), byLocation.stream().map(ProductResponseDto::getName).toList());
+        assertEquals(json(get("/stores/product/by-location").param("location", "Тверская")), byLocation);
+        assertEquals(List.of("Кефир", "Сыр"), unique.stream().map(ProductResponseDto::getName).sorted().toList());
+
+    }
+
+    private String stream(MockHttpServletRequestBuilder builder) throws Exception {
+
+        MvcResult result = mockMvc.perform(builder.accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+
+        // NDJSON всегда в UTF-8, charset в Content-Type не указывается
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    }
+
+    private List<ProductResponseDto> json(RequestBuilder request) throws Exception {
+
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse()
+                .getContentAsString();
+
+        return Arrays.asList(objectMapper.readValue(body, ProductResponseDto[].class));
+
+    }
+
+    private List<ProductResponseDto> products(String ndjson) {
+
+        return ndjson.lines().map(line -> {
+            try {
+                return objectMapper.readValue(line, ProductResponseDto.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).toList();
+
+    }
+
+    private UUID insertStore(String location) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) VALUES (?, 'Пятёрочка', ?, ?)",
+                id, location, id + "@example.com");
+
+        return id;
+
+    }
+
+    private UUID insertProduct(String name, String price, UUID storeId) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) VALUES (?, ?, ?, 'some')",
+                id, name, new BigDecimal(price));
+        link(storeId, id);
+
+        return id;
+
+    }
+
+    private void link(UUID storeId, UUID productId) {
+        jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), storeId, productId);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.store.controller;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreCloneJobRepository;
+import com.example.store.repository.StoreRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StoreCloneTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private StoreCloneJobRepository jobRepository;
+
+    @AfterEach
+    void clear() {
+        jobRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void cloneStore_thenAcceptedAndPolledUntilDone() throws Exception {
+
+        UUID storeId = storeRepository.saveAndFlush(new Store(null, "Пятёрочка", "ул. Ленина, 1",
+                "clone@ya.ru", null, null)).getId();
+
+        MvcResult accepted = mockMvc.perform(post("/stores/{id}/clone", storeId).param("copies", "3"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.sourceStoreId").value(storeId.toString()))
+                .andExpect(jsonPath("$.copies").value(3))
+                .andReturn();
+
+        String location = accepted.getResponse().getHeader("Location");
+        String jobId = JsonPath.read(accepted.getResponse().getContentAsString(), "$.id");
+        assertEquals("/stores/clone-jobs/" + jobId, location);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String status;
+        do {
+            assertTrue(System.nanoTime() < deadline, "Clone job not finished within 10 s");
+            Thread.sleep(20);
+            status = JsonPath.read(mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+        } while (status.equals("QUEUED") || status.equals("RUNNING"));
+
+        assertEquals("SUCCEEDED", status);
+        assertEquals(4, storeRepository.count());
+
+    }
+
+    @Test
+    void cloneStore_whenCopiesOutOfRange_thenBadRequest() throws Exception {
+
+        UUID storeId = UUID.randomUUID();
+
+        mockMvc.perform(post("/stores/{id}/clone", storeId).param("copies", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"))
+                .andExpect(header().doesNotExist("Location"));
+
+        assertEquals(0, jobRepository.count());
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.example.store.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_whenGenerated_thenVersion7AndRfcVariant() {
+
+        UUID uuid = UuidV7.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+
+    }
+
+    @Test
+    void next_whenGeneratedInSequence_thenStrictlyIncreasingWithinMillisecond() {
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            UUID previous = ids.get(i - 1);
+            UUID current = ids.get(i);
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), current.getMostSignificantBits()) < 0,
+                    previous + " >= " + current);
+        }
+
+    }
+
+    @Test
+    void next_whenGeneratedConcurrently_thenUnique() {
+
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 200_000).parallel()
+                .forEach(i -> ids.add(UuidV7.next()));
+
+        assertEquals(200_000, ids.size());
+
+    }
+
+    @Test
+    void next_whenGenerated_thenTimestampIsCurrentTime() {
+
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+
+        assertTrue(timestamp >= before, "timestamp " + timestamp + " is before " + before);
+        assertTrue(timestamp <= System.currentTimeMillis() + 1_000);
+
+    }
+
+}
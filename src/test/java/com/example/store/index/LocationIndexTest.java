@@ -0,0 +1,261 @@
+package com.example.store.index;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.entity.Product;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.StoreProductRepository;
+import com.example.store.repository.StoreRepository;
+import com.example.store.request.ProductRequest;
+import com.example.store.request.StoreRequest;
+import com.example.store.service.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "store.location-index.enabled=true")
+class LocationIndexTest extends TestContainerInitialization {
+
+    @Autowired
+    private LocationIndex locationIndex;
+
+    @Autowired
+    private StoreService service;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreProductRepository storeProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void clear() {
+        storeProductRepository.deleteAll();
+        productRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void rebuild_whenRowsWrittenBypassingJpa_thenIndexThem() {
+
+        UUID storeId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) " +
+                "VALUES (?, 'Магнит', 'Казань, ул. Баумана, 8', 'm@ya.ru')", storeId);
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) VALUES (?, 'Квас', 55.00, 'Напитки')",
+                productId);
+        jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), storeId, productId);
+
+        assertEquals(Optional.of(List.of()), locationIndex.findProductsByLocation("Баумана"));
+
+        locationIndex.rebuild();
+
+        assertEquals(List.of(productId), productIds(locationIndex.findProductsByLocation("ул. Баумана").orElseThrow()));
+
+    }
+
+    @Test
+    void rebuildAfterCommit_whenBulkLoadCommitted_thenRebuildInBackground() throws InterruptedException {
+
+        UUID storeId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO stores (id, name, location, email) " +
+                    "VALUES (?, 'Магнит', 'Казань, ул. Баумана, 8', 'm@ya.ru')", storeId);
+            jdbcTemplate.update("INSERT INTO products (id, name, price, category) VALUES (?, 'Квас', 55.00, 'Напитки')",
+                    productId);
+            jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                    UUID.randomUUID(), storeId, productId);
+            locationIndex.rebuildAfterCommit();
+        });
+
+        // Перестройка идёт в своей транзакции в фоновом потоке и видит закоммиченные строки
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (locationIndex.findProductsByLocation("Баумана").orElseThrow().isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "Index was not rebuilt within 10 s");
+            Thread.sleep(50);
+        }
+
+        assertEquals(List.of(productId), productIds(locationIndex.findProductsByLocation("Баумана").orElseThrow()));
+
+    }
+
+    @Test
+    void findAllProductByLocation_whenProductsCreatedThroughService_thenAnswerFromIndexSortedByPrice() {
+
+        StoreResponseDto first = service.createStore(storeRequest("Пятёрочка", "Москва, ул. Ленина, 15"));
+        StoreResponseDto second = service.createStore(storeRequest("Перекрёсток", "Омск, ул. Ленина, 4"));
+        service.createStore(storeRequest("Лента", "Москва, ул. Тверская, 1"));
+
+        ProductResponseDto cola = service.createProduct(first.getId(), productRequest("Кола", "73.67"));
+        ProductResponseDto kvass = service.createProductInStores(List.of(first.getId(), second.getId()),
+                productRequest("Квас", "55.00"));
+
+        Optional<List<ProductResponseDto>> fromIndex = locationIndex.findProductsByLocation("Ленина");
+
+        assertEquals(List.of(kvass.getId(), cola.getId()), productIds(fromIndex.orElseThrow()));
+        assertEquals(List.of(kvass.getId()), productIds(service.findAllProductByLocation("Омск, ул. Ленина")));
+        assertEquals(List.of(kvass.getId(), cola.getId()), productIds(service.findAllProductByLocation("Лен")));
+
+    }
+
+    @Test
+    void updateById_whenLocationChanged_thenMoveStoreBetweenStreets() {
+
+        StoreResponseDto store = service.createStore(storeRequest("Пятёрочка", "ул. Ленина, 15"));
+        ProductResponseDto product = service.createProduct(store.getId(), productRequest("Квас", "55.00"));
+
+        service.updateById(store.getId(), storeRequest("Пятёрочка", "ул. Ёлочная, 3"));
+
+        assertTrue(service.findAllProductByLocation("Ленина").isEmpty());
+        assertEquals(List.of(product.getId()), productIds(service.findAllProductByLocation("Ёлочная")));
+
+    }
+
+    @Test
+    void deleteStore_whenDeleted_thenRemoveStoreFromIndex() {
+
+        StoreResponseDto store = service.createStore(storeRequest("Пятёрочка", "ул. Ленина, 15"));
+        service.createProduct(store.getId(), productRequest("Квас", "55.00"));
+
+        service.deleteStore(store.getId());
+
+        assertEquals(Optional.of(List.of()), locationIndex.findProductsByLocation("Ленина"));
+
+    }
+
+    @Test
+    void findProductsByLocation_whenTransactionRolledBack_thenIndexUnchanged() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.createStore(storeRequest("Пятёрочка", "ул. Ленина, 15"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(Optional.of(List.of()), locationIndex.findProductsByLocation("Ленина"));
+
+    }
+
+    @Test
+    void findProductsByLocation_whenQueryShorterThanTrigram_thenFallBackToDatabase() {
+
+        assertEquals(Optional.empty(), locationIndex.findProductsByLocation("15"));
+
+    }
+
+    // Индекс и запрос в БД отвечают одинаково: подстрока адреса с учётом регистра, спецсимволы LIKE — как есть
+    @Test
+    void findProductsByLocation_thenSameResultAsDatabase() {
+
+        StoreResponseDto first = service.createStore(storeRequest("Пятёрочка", "Москва, ул. Ленина, 15"));
+        StoreResponseDto second = service.createStore(storeRequest("Перекрёсток", "Омск, Ленинский пр-т, 4"));
+        StoreResponseDto third = service.createStore(storeRequest("Лента", "Москва, ул. Тверская, 100%"));
+        service.createProductInStores(List.of(first.getId(), second.getId()), productRequest("Квас", "55.00"));
+        service.createProduct(second.getId(), productRequest("Кола", "73.67"));
+        service.createProduct(third.getId(), productRequest("Сыр", "300.00"));
+        // Одна цена: порядок задают названия — регистр, ё, латиница и символы вне BMP (эмодзи после ｱ в "C",
+        // но раньше него в UTF-16)
+        for (String name : List.of("яблоко", "Яблоко", "ёж", "Ёлка", "ель", "apple", "Apple", "ｱ", "\uD83D\uDE00")) {
+            service.createProduct(first.getId(), productRequest(name, "10.00"));
+        }
+
+        for (String street : List.of("нина", "Ленин", "ленин", "Москва, ул.", "Москва ул", "ул. Ленина, 15",
+                "100%", "00%", "Тверская, 1_0", "Омск, Ленинский пр-т, 4", "Казань")) {
+            List<UUID> fromDatabase = productRepository.findAllByStoreLocationLike(
+                    "%" + street.replace("%", "\\%").replace("_", "\\_") + "%").stream()
+                    .map(Product::getId)
+                    .toList();
+            assertEquals(fromDatabase, productIds(locationIndex.findProductsByLocation(street).orElseThrow()), street);
+        }
+
+        // Середина слова: «нина» есть в «Ленина», но не в «Ленинский»
+        assertEquals(10, productIds(locationIndex.findProductsByLocation("нина").orElseThrow()).size());
+
+        assertEquals(List.of("Apple", "apple", "Ёлка", "Яблоко", "ель", "яблоко", "ёж", "ｱ", "\uD83D\uDE00", "Квас"),
+                locationIndex.findProductsByLocation("ул. Ленина").orElseThrow().stream()
+                        .map(ProductResponseDto::getName)
+                        .toList());
+
+    }
+
+    @Test
+    void deleteStore_whenManyRemoved_thenCompactInBackground() throws InterruptedException {
+
+        ReflectionTestUtils.setField(locationIndex, "compactAfterRemovals", 3);
+        try {
+            List<StoreResponseDto> stores = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                stores.add(service.createStore(storeRequest("Пятёрочка", "Москва, ул. Ленина, " + i)));
+            }
+            UUID productId = service.createProduct(stores.get(3).getId(), productRequest("Квас", "55.00")).getId();
+
+            for (int i = 0; i < 3; i++) {
+                service.deleteStore(stores.get(i).getId());
+            }
+
+            // Номера удалённых магазинов освобождает фоновая перестройка, как только их накопится 3;
+            // удалённые после её снимка снова копятся до следующей
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (locationIndex.removedOrdinals() >= 3) {
+                assertTrue(System.nanoTime() < deadline, "Index was not compacted within 10 s");
+                Thread.sleep(50);
+            }
+
+            assertEquals(List.of(productId), productIds(locationIndex.findProductsByLocation("Ленина").orElseThrow()));
+        } finally {
+            ReflectionTestUtils.setField(locationIndex, "compactAfterRemovals", 100_000);
+        }
+
+    }
+
+    private static StoreRequest storeRequest(String name, String location) {
+
+        StoreRequest request = new StoreRequest();
+        request.setName(name);
+        request.setLocation(location);
+        request.setEmail("mail@ya.ru");
+
+        return request;
+
+    }
+
+    private static ProductRequest productRequest(String name, String price) {
+
+        ProductRequest request = new ProductRequest();
+        request.setName(name);
+        request.setPrice(new BigDecimal(price));
+
+        return request;
+
+    }
+
+    private static List<UUID> productIds(List<ProductResponseDto> products) {
+        return products.stream().map(ProductResponseDto::getId).toList();
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.example.store.readmodel;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.changes.ChangeFeed;
+import com.example.store.changes.EntityChange;
+import com.example.store.changes.EntityChange.EntityType;
+import com.example.store.changes.EntityChange.Operation;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.request.ProductRequest;
+import com.example.store.service.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Пересчёт по расписанию отодвинут, чтобы витрины менялись только явным refresh()
+@SpringBootTest(properties = {
+        "store.read-model.enabled=true",
+        "store.read-model.refresh-interval=1h",
+        "store.read-model.max-age=1h",
+        "store.read-model.max-staleness=1m"
+})
+class ProductReadModelTest extends TestContainerInitialization {
+
+    @Autowired
+    private ProductReadModel readModel;
+
+    @Autowired
+    private StoreService service;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void refresh() {
+        assertTrue(readModel.refresh());
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE store_products, products, stores");
+        readModel.refresh();
+    }
+
+    @Test
+    void findUniqueProducts_thenAnsweredFromViewUntilRefreshed() {
+
+        UUID storeId = insertStore("ул. Ленина, 1");
+        UUID productId = insertProduct("Молоко", "90.00", storeId);
+
+        // Вставка мимо сервиса не даёт события: витрина о товаре ещё не знает
+        assertTrue(service.findUniqueProducts().isEmpty());
+
+        assertTrue(readModel.refresh());
+
+        assertEquals(List.of(productId), service.findUniqueProducts().stream().map(ProductResponseDto::getId).toList());
+
+    }
+
+    @Test
+    void findAllProductByLocation_thenMatchesLiveQueryAfterRefresh() {
+
+        UUID first = insertStore("Москва, ул. Тверская, 1");
+        UUID second = insertStore("Москва, ул. Тверская, 2");
+        insertStore("Москва, ул. Ленина, 3");
+        UUID shared = insertProduct("Хлеб", "50.00", first);
+        jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), second, shared);
+        insertProduct("Кефир", "80.00", second);
+
+        assertTrue(service.findAllProductByLocation("Тверская").isEmpty());
+
+        assertTrue(readModel.refresh());
+
+        List<ProductResponseDto> products = service.findAllProductByLocation("Тверская");
+        assertEquals(List.of("Хлеб", "Кефир"), products.stream().map(ProductResponseDto::getName).toList());
+
+    }
+
+    @Test
+    void createProduct_thenChangeAwaitsRefresh() throws InterruptedException {
+
+        UUID storeId = insertStore("ул. Ленина, 1");
+
+        service.createProduct(storeId, new ProductRequest("Сыр", new BigDecimal("300.00")));
+
+        // Событие своего экземпляра приходит по ленте после коммита
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (readModel.staleness().isZero()) {
+            assertTrue(System.nanoTime() < deadline, "Change was not registered within 10 s");
+            Thread.sleep(20);
+        }
+
+        assertTrue(service.findUniqueProducts().isEmpty());
+
+        assertTrue(readModel.refresh());
+
+        assertEquals(List.of("Сыр"), service.findUniqueProducts().stream().map(ProductResponseDto::getName).toList());
+
+    }
+
+    @Test
+    void findUniqueProducts_whenViewTooStale_thenComputedLive() {
+
+        UUID storeId = insertStore("ул. Ленина, 1");
+        UUID productId = insertProduct("Молоко", "90.00", storeId);
+
+        // Изменение этого экземпляра, не отражённое дольше max-staleness
+        readModel.onChange(new EntityChange(0, EntityType.PRODUCT, productId, Operation.CREATED,
+                changeFeed.nodeId(), OffsetDateTime.now().minusMinutes(5)));
+
+        assertFalse(readModel.isUsable());
+        assertEquals(List.of(productId), service.findUniqueProducts().stream().map(ProductResponseDto::getId).toList());
+
+        assertTrue(readModel.refresh());
+
+        assertEquals(Duration.ZERO, readModel.staleness());
+        assertTrue(readModel.isUsable());
+
+    }
+
+    @Test
+    void onChange_whenChangeFromAnotherInstance_thenAwaitsRefresh() {
+
+        // Изменение другого экземпляра, не отражённое дольше max-staleness: отчёты считаются по таблицам
+        readModel.onChange(new EntityChange(0, EntityType.STORE, UUID.randomUUID(), Operation.UPDATED,
+                UUID.randomUUID(), OffsetDateTime.now().minusMinutes(5)));
+
+        assertTrue(readModel.staleness().compareTo(Duration.ofMinutes(5)) >= 0);
+        assertFalse(readModel.isUsable());
+
+        assertTrue(readModel.refresh());
+
+        assertEquals(Duration.ZERO, readModel.staleness());
+
+    }
+
+    @Test
+    void onChange_whenSupplierChanged_thenIgnored() {
+
+        readModel.onChange(new EntityChange(0, EntityType.SUPPLIER, UUID.randomUUID(), Operation.UPDATED,
+                UUID.randomUUID(), OffsetDateTime.now().minusMinutes(5)));
+
+        assertEquals(Duration.ZERO, readModel.staleness());
+
+    }
+
+    private UUID insertStore(String location) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) VALUES (?, 'Пятёрочка', ?, ?)",
+                id, location, id + "@example.com");
+
+        return id;
+
+    }
+
+    private UUID insertProduct(String name, String price, UUID storeId) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) VALUES (?, ?, ?, 'some')",
+                id, name, new BigDecimal(price));
+        jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), storeId, id);
+
+        return id;
+
+    }
+
+}
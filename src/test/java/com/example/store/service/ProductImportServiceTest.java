@@ -0,0 +1,137 @@
+package com.example.store.service;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.BulkImportErrorDto;
+import com.example.store.dto.ProductImportResponseDto;
+import com.example.store.entity.Product;
+import com.example.store.entity.Store;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.StoreProductRepository;
+import com.example.store.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductImportServiceTest extends TestContainerInitialization {
+
+    private static final UUID FIRST_PRODUCT_ID = UUID.fromString("880e8400-e29b-41d4-a716-446655440001");
+    private static final UUID SECOND_PRODUCT_ID = UUID.fromString("880e8400-e29b-41d4-a716-446655440002");
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreProductRepository storeProductRepository;
+
+    @Autowired
+    private ProductImportService service;
+
+    @AfterEach
+    void clear() {
+        storeProductRepository.deleteAll(storeProductRepository.findAll().stream()
+                .filter(link -> List.of(FIRST_PRODUCT_ID, SECOND_PRODUCT_ID).contains(link.getProductId()))
+                .toList());
+        productRepository.deleteAllById(List.of(FIRST_PRODUCT_ID, SECOND_PRODUCT_ID));
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_whenImportedTwice_thenUpsertProductsWithoutDuplicateLinks() throws Exception {
+
+        Store store = createStore();
+
+        String csv = "id,name,price,category,store_id\n" +
+                FIRST_PRODUCT_ID + ",Лимонад,23.12,Напитки," + store.getId() + "\n" +
+                SECOND_PRODUCT_ID + ",\"Кола, 0.5 л\",73.67,Напитки,\n";
+
+        ProductImportResponseDto result = service.importCsv(toStream(csv));
+
+        assertEquals(2, result.getRows());
+        assertEquals(2, result.getProductsUpserted());
+        assertEquals(1, result.getStoreLinksCreated());
+        assertEquals("Кола, 0.5 л", productRepository.findById(SECOND_PRODUCT_ID).orElseThrow().getName());
+
+        String update = "id,name,price,category,store_id\n" +
+                FIRST_PRODUCT_ID + ",Лимонад,25.00,Напитки," + store.getId() + "\n";
+
+        ProductImportResponseDto secondResult = service.importCsv(toStream(update));
+
+        assertEquals(0, secondResult.getStoreLinksCreated());
+
+        Product product = productRepository.findById(FIRST_PRODUCT_ID).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(product.getPrice()));
+
+    }
+
+    @Test
+    void importNdjson_whenRowsValid_thenInsertProductsAndLinks() throws Exception {
+
+        Store store = createStore();
+
+        String ndjson = "{\"id\": \"" + FIRST_PRODUCT_ID + "\", \"name\": \"Квас \\\"Хлебный\\\"\", " +
+                "\"price\": 55.00, \"category\": \"Напитки\", \"store_id\": \"" + store.getId() + "\"}\n" +
+                "{\"id\": \"" + SECOND_PRODUCT_ID + "\", \"name\": \"Кола\", \"price\": 73.67, \"category\": null}\n";
+
+        ProductImportResponseDto result = service.importNdjson(toStream(ndjson));
+
+        assertEquals(2, result.getRows());
+        assertEquals(1, result.getStoreLinksCreated());
+        assertEquals("Квас \"Хлебный\"", productRepository.findById(FIRST_PRODUCT_ID).orElseThrow().getName());
+        assertNull(productRepository.findById(SECOND_PRODUCT_ID).orElseThrow().getCategory());
+
+    }
+
+    @Test
+    void importCsv_whenIdMissingOrStoreUnknown_thenRowsReportedAndNothingDuplicated() throws Exception {
+
+        Store store = createStore();
+        UUID unknownStoreId = UUID.randomUUID();
+        long productsBefore = productRepository.count();
+
+        String csv = "id,name,price,category,store_id\n" +
+                FIRST_PRODUCT_ID + ",Лимонад,23.12,Напитки," + store.getId() + "\n" +
+                ",Кола,73.67,Напитки," + store.getId() + "\n" +
+                SECOND_PRODUCT_ID + ",Квас,55.00,Напитки," + unknownStoreId + "\n";
+
+        for (int run = 0; run < 2; run++) {
+            ProductImportResponseDto result = service.importCsv(toStream(csv));
+
+            assertEquals(3, result.getRows());
+            assertEquals(2, result.getRejectedRows());
+            assertEquals(List.of(1, 2), result.getErrors().stream().map(BulkImportErrorDto::getIndex).toList());
+            assertEquals("id is required", result.getErrors().get(0).getMessage());
+            assertEquals("Store not found: " + unknownStoreId, result.getErrors().get(1).getMessage());
+        }
+
+        // Строка без id не создала товар ни при первой, ни при повторной загрузке
+        assertEquals(productsBefore + 2, productRepository.count());
+        assertTrue(storeProductRepository.findAll().stream()
+                .noneMatch(link -> link.getStoreId().equals(unknownStoreId)));
+        assertEquals(1, storeProductRepository.findAll().stream()
+                .filter(link -> link.getStoreId().equals(store.getId())).count());
+
+    }
+
+    private Store createStore() {
+        return storeRepository.saveAndFlush(new Store(UUID.randomUUID(), "Пятёрочка", "ул. Ленина", "mail@ya.ru", null, null));
+    }
+
+    private InputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.example.store.service;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.ProductResponseDto;
+import com.example.store.entity.Product;
+import com.example.store.entity.Store;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SearchServiceTest extends TestContainerInitialization {
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SearchService service;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void searchStores_whenStreetHasTypo_thenFindStoresOnCorrectedStreet() {
+
+        saveStore("Пятёрочка", "Москва, ул. Ленина, 15");
+        saveStore("Магнит", "Казань, ул. Ленина, 4");
+        saveStore("Лента", "Москва, ул. Тверская, 1");
+
+        List<AllStoresResponseDto> result = service.searchStores("ул. Ленена", 0, 20);
+
+        assertEquals(List.of("Магнит", "Пятёрочка"), result.stream().map(AllStoresResponseDto::getName).sorted().toList());
+
+    }
+
+    @Test
+    void searchStores_whenQueryMatchesNameAndLocation_thenNameMatchRanksFirst() {
+
+        saveStore("Тверская лавка", "Тула, ул. Мира, 3");
+        saveStore("Магнит", "Москва, ул. Тверская, 7");
+
+        List<AllStoresResponseDto> result = service.searchStores("тверская", 0, 20);
+
+        assertEquals(List.of("Тверская лавка", "Магнит"), result.stream().map(AllStoresResponseDto::getName).toList());
+
+    }
+
+    @Test
+    void searchStores_whenSeveralPages_thenReturnDisjointPages() {
+
+        IntStream.range(0, 5).forEach(i -> saveStore("Магнит " + i, "Омск, ул. Гагарина, " + i));
+
+        List<AllStoresResponseDto> firstPage = service.searchStores("гагарина", 0, 3);
+        List<AllStoresResponseDto> secondPage = service.searchStores("гагарина", 1, 3);
+
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(firstPage.stream().noneMatch(secondPage::contains));
+
+    }
+
+    @Test
+    void searchStores_whenQueryIsBlank_thenReturnEmpty() {
+
+        saveStore("Пятёрочка", "Москва, ул. Ленина, 15");
+
+        assertTrue(service.searchStores(" ", 0, 20).isEmpty());
+
+    }
+
+    @Test
+    void searchProducts_whenNameOrCategoryMatches_thenFindProducts() {
+
+        productRepository.saveAndFlush(new Product(null, "Велосипед Trek", BigDecimal.valueOf(49999.99), "sports"));
+        productRepository.saveAndFlush(new Product(null, "Кофемашина Delonghi", BigDecimal.valueOf(24999.99), "home"));
+
+        List<ProductResponseDto> byTypo = service.searchProducts("велосепед", 0, 20);
+        List<ProductResponseDto> byCategory = service.searchProducts("home", 0, 20);
+
+        assertEquals(List.of("Велосипед Trek"), byTypo.stream().map(ProductResponseDto::getName).toList());
+        assertEquals(List.of("Кофемашина Delonghi"), byCategory.stream().map(ProductResponseDto::getName).toList());
+
+    }
+
+    private void saveStore(String name, String location) {
+        storeRepository.saveAndFlush(new Store(null, name, location, "mail@ya.ru", null, null));
+    }
+
+}
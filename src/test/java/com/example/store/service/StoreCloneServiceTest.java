@@ -0,0 +1,153 @@
+package com.example.store.service;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.CloneJobResponseDto;
+import com.example.store.entity.StoreCloneJob.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StoreCloneServiceTest extends TestContainerInitialization {
+
+    @Autowired
+    private StoreCloneService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE store_clone_jobs, store_products, products, stores");
+    }
+
+    @Test
+    void submit_thenStoreClonedWithProducts() throws InterruptedException {
+
+        UUID storeId = insertStore();
+        List<UUID> productIds = List.of(insertProduct("Молоко", storeId), insertProduct("Хлеб", storeId),
+                insertProduct("Сыр", storeId));
+
+        CloneJobResponseDto submitted = service.submit(storeId, 5);
+
+        assertEquals(Status.QUEUED, submitted.getStatus());
+
+        CloneJobResponseDto job = await(submitted.getId());
+
+        assertEquals(Status.SUCCEEDED, job.getStatus());
+        assertEquals(5, job.getStoreIds().size());
+        assertEquals(15, job.getLinksCopied());
+        assertNotNull(job.getStartedAt());
+        assertNotNull(job.getFinishedAt());
+
+        for (UUID cloneId : job.getStoreIds()) {
+            assertEquals("Пятёрочка", jdbcTemplate.queryForObject("SELECT name FROM stores WHERE id = ?",
+                    String.class, cloneId));
+            List<UUID> cloneProducts = jdbcTemplate.queryForList(
+                    "SELECT product_id FROM store_products WHERE store_id = ?", UUID.class, cloneId);
+            assertEquals(productIds.size(), cloneProducts.size());
+            assertTrue(cloneProducts.containsAll(productIds));
+        }
+
+    }
+
+    @Test
+    void submit_whenStoreNotFound_thenThrow() {
+
+        assertThrows(NoSuchElementException.class, () -> service.submit(UUID.randomUUID(), 1));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM store_clone_jobs", Integer.class));
+
+    }
+
+    @Test
+    void renewLeases_whenJobAbandonedByStoppedInstance_thenFailed() {
+
+        // Задания упавшего экземпляра: аренду давно не продлевали
+        UUID running = insertJob(Status.RUNNING, LocalDateTime.now().minusMinutes(10));
+        UUID queued = insertJob(Status.QUEUED, LocalDateTime.now().minusMinutes(10));
+        // Задание живого экземпляра с недавно продлённой арендой
+        UUID alive = insertJob(Status.RUNNING, LocalDateTime.now());
+
+        service.renewLeases();
+
+        assertEquals(Status.FAILED, service.findJob(running).getStatus());
+        assertEquals(Status.FAILED, service.findJob(queued).getStatus());
+        assertNotNull(service.findJob(running).getFinishedAt());
+        assertEquals(Status.RUNNING, service.findJob(alive).getStatus());
+
+    }
+
+    @Test
+    void renewLeases_whenJobFinished_thenNotChanged() throws InterruptedException {
+
+        UUID storeId = insertStore();
+        UUID jobId = await(service.submit(storeId, 1).getId()).getId();
+        jdbcTemplate.update("UPDATE store_clone_jobs SET heartbeat_at = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(10), jobId);
+
+        service.renewLeases();
+
+        assertEquals(Status.SUCCEEDED, service.findJob(jobId).getStatus());
+
+    }
+
+    private CloneJobResponseDto await(UUID jobId) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        CloneJobResponseDto job = service.findJob(jobId);
+
+        while (job.getStatus() == Status.QUEUED || job.getStatus() == Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "Clone job not finished within 10 s");
+            Thread.sleep(20);
+            job = service.findJob(jobId);
+        }
+
+        return job;
+
+    }
+
+    private UUID insertJob(Status status, LocalDateTime heartbeatAt) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO store_clone_jobs (id, source_store_id, copies, status, created_at, " +
+                "heartbeat_at) VALUES (?, ?, 1, ?, ?, ?)", id, UUID.randomUUID(), status.name(), heartbeatAt,
+                heartbeatAt);
+
+        return id;
+
+    }
+
+        private UUID insertStore() {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO stores (id, name, location, email) VALUES (?, 'Пятёрочка', ?, ?)",
+                id, "ул. Ленина, 1", id + "@example.com");
+
+        return id;
+
+    }
+
+    private UUID insertProduct(String name, UUID storeId) {
+
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category) VALUES (?, ?, ?, 'some')",
+                id, name, new BigDecimal("100.00"));
+        jdbcTemplate.update("INSERT INTO store_products (id, store_id, product_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), storeId, id);
+
+        return id;
+
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.example.store.service;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.BulkImportErrorDto;
+import com.example.store.dto.BulkImportResponseDto;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "store.import.batch-size=2")
+class StoreImportServiceTest extends TestContainerInitialization {
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private StoreImportService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void importStores_whenJsonArrayHasInvalidRow_thenImportOthersAndReportRow() throws Exception {
+
+        String body = """
+                [
+                  {"name": "Пятёрочка", "location": "ул. Ленина", "email": "mail@ya.ru"},
+                  {"name": "", "location": "ул. Ленина", "email": "mail@ya.ru"},
+                  {"name": "Магнит", "location": "ул. Клюквина", "email": "mail@mailer.ml"},
+                  {"name": "Винлаб", "location": "ул. Ватутина", "email": "mailus@mail.ml"}
+                ]
+                """;
+
+        BulkImportResponseDto result = service.importStores(toStream(body));
+
+        assertEquals(3, result.getImported());
+        assertEquals(List.of(1), result.getErrors().stream().map(BulkImportErrorDto::getIndex).toList());
+        assertEquals(3, storeRepository.count());
+
+    }
+
+    @Test
+    void importStores_whenDatabaseRejectsRow_thenRetryOthersOneByOne() throws Exception {
+
+        // Нулевой символ проходит валидацию, но не сохраняется в TEXT: пачка откатывается целиком
+        String body = """
+                {"name": "Пятёрочка", "location": "ул. Ленина", "email": "mail@ya.ru"}
+                {"name": "Магнит\\u0000", "location": "ул. Клюквина", "email": "mail@mailer.ml"}
+                {"name": "Винлаб", "location": "ул. Ватутина", "email": "mailus@mail.ml"}
+                """;
+
+        BulkImportResponseDto result = service.importStores(toStream(body));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(1), result.getErrors().stream().map(BulkImportErrorDto::getIndex).toList());
+        assertEquals("Invalid value", result.getErrors().get(0).getMessage());
+        assertEquals(2, storeRepository.count());
+
+    }
+
+    @Test
+    void importStores_whenNdjson_thenImportAllRows() throws Exception {
+
+        String body = """
+                {"name": "Пятёрочка", "location": "ул. Ленина", "email": "mail@ya.ru"}
+                {"name": "Магнит", "location": "ул. Клюквина", "email": "mail@mailer.ml"}
+                {"name": "Винлаб", "location": "ул. Ватутина", "email": "mailus@mail.ml"}
+                """;
+
+        BulkImportResponseDto result = service.importStores(toStream(body));
+
+        assertEquals(3, result.getImported());
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(3, storeRepository.count());
+
+    }
+
+    @Test
+    void importStores_whenRowHasWrongType_thenReportRowAndContinue() throws Exception {
+
+        String body = """
+                {"name": "Пятёрочка", "location": "ул. Ленина", "email": "mail@ya.ru"}
+                {"name": ["Магнит"], "location": "ул. Клюквина", "email": "mail@mailer.ml"}
+                {"name": "Винлаб", "location": "ул. Ватутина", "email": "mailus@mail.ml"}
+                """;
+
+        BulkImportResponseDto result = service.importStores(toStream(body));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(1), result.getErrors().stream().map(BulkImportErrorDto::getIndex).toList());
+
+    }
+
+    @Test
+    void importStores_whenImported_thenCreatedEventPerStoreWithoutImported() throws Exception {
+
+        long lastEventId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM change_events", Long.class);
+
+        String body = """
+                {"name": "Пятёрочка", "location": "ул. Ленина", "email": "mail@ya.ru"}
+                {"name": "Магнит", "location": "ул. Клюквина", "email": "mail@mailer.ml"}
+                {"name": "Винлаб", "location": "ул. Ватутина", "email": "mailus@mail.ml"}
+                """;
+
+        service.importStores(toStream(body));
+
+        // Две пачки по batch-size=2: по событию на магазин, без IMPORTED, сбрасывающего кэш на других экземплярах
+        List<Map<String, Object>> events = jdbcTemplate.queryForList(
+                "SELECT entity_type, entity_id, operation FROM change_events WHERE id > ?", lastEventId);
+
+        assertTrue(events.stream().allMatch(event -> "STORE".equals(event.get("entity_type"))
+                && "CREATED".equals(event.get("operation"))));
+        assertEquals(storeRepository.findAll().stream().map(Store::getId).collect(Collectors.toSet()),
+                events.stream().map(event -> (UUID) event.get("entity_id")).collect(Collectors.toSet()));
+        assertEquals(3, events.size());
+
+    }
+
+    private InputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
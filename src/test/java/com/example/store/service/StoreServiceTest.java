@@ -1,7 +1,10 @@
 package com.example.store.service;
 
 import com.example.store.TestContainerInitialization;
+import com.example.store.dto.AllStoresResponseDto;
+import com.example.store.dto.BatchResponseDto;
 import com.example.store.dto.ProductResponseDto;
+import com.example.store.dto.StorePageResponseDto;
 import com.example.store.dto.StoreResponseDto;
 import com.example.store.entity.Product;
 import com.example.store.entity.Store;
@@ -9,6 +12,7 @@ import com.example.store.entity.StoreProduct;
 import com.example.store.repository.ProductRepository;
 import com.example.store.repository.StoreProductRepository;
 import com.example.store.repository.StoreRepository;
+import com.example.store.request.ProductRequest;
 import com.example.store.request.StoreRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
@@ -122,6 +126,19 @@ class StoreServiceTest extends TestContainerInitialization {
 
     }
 
+    @Test
+    void updateStore_whenStoreIsCached_thenFindByIdReturnsUpdated() {
+
+        UUID id = createStore("Пятёрочка", "Ленина", "mail@somemail.ml").getId();
+
+        assertEquals("Пятёрочка", service.findById(id).getName());
+
+        service.updateById(id, createStoreRequest("Fix-price", "Урванцева", "mail@mailer.ml"));
+
+        assertEquals("Fix-price", service.findById(id).getName());
+
+    }
+
     @Test
     void deleteStore_whenStoreNotFoundById_thenThrow() {
 
@@ -168,6 +185,40 @@ class StoreServiceTest extends TestContainerInitialization {
 
     }
 
+    @Test
+    void findStoresPageByName_whenStoresExist_thenWalkAllPagesInOrder() {
+
+        createStore("Магнит", "Клюквина", "mail@mailer.ml");
+        createStore("Винлаб", "Ватутина", "mailus@mail.ml");
+        createStore("Пятёрочка", "Ленина", "mail@somemail.ml");
+
+        StorePageResponseDto firstPage = service.findStoresPageByName(null, 2);
+
+        assertEquals(List.of("Винлаб", "Магнит"),
+                firstPage.getStores().stream().map(AllStoresResponseDto::getName).toList());
+        assertNotNull(firstPage.getNextCursor());
+
+        StorePageResponseDto secondPage = service.findStoresPageByName(firstPage.getNextCursor(), 2);
+
+        assertEquals(List.of("Пятёрочка"),
+                secondPage.getStores().stream().map(AllStoresResponseDto::getName).toList());
+        assertNull(secondPage.getNextCursor());
+
+    }
+
+    @Test
+    void streamAllStoresByName_whenStoresExist_thenConsumeAllInOrder() {
+
+        createStore("Магнит", "Клюквина", "mail@mailer.ml");
+        createStore("Винлаб", "Ватутина", "mailus@mail.ml");
+
+        List<String> names = new ArrayList<>();
+        service.streamAllStoresByName(store -> names.add(store.getName()));
+
+        assertEquals(List.of("Винлаб", "Магнит"), names);
+
+    }
+
     @Test
     void findAllProductByLocation_whenStoreDoesNotExist_thenReturnEmptyList() {
 
@@ -281,6 +332,22 @@ class StoreServiceTest extends TestContainerInitialization {
 
     }
 
+    @Test
+    void findAllProductByLocation_whenStreetContainsWildcard_thenMatchLiterally() {
+
+        Store store = createStore("Пятёрочка", "ул. Ленина", "123@example.com");
+
+        Product product = createProduct("Лимонад", BigDecimal.valueOf(23.12), "Напитки");
+
+        createStoreProduct(store.getId(), product.getId());
+
+        List<ProductResponseDto> result = assertDoesNotThrow(() ->
+                service.findAllProductByLocation("ул._Ленина%"));
+
+        Assertions.assertTrue(result.isEmpty());
+
+    }
+
     @Test
     void findUniqueProducts_whenUniqueProductsExist_thenReturnUniqueProductList() {
 
@@ -295,6 +362,77 @@ class StoreServiceTest extends TestContainerInitialization {
         createStoreProduct(firstStore.getId(), secondProduct.getId());
         createStoreProduct(firstStore.getId(), ThirdProduct.getId());
         createStoreProduct(secondStore.getId(), ThirdProduct.getId());
+
+        List<UUID> result = service.findUniqueProducts().stream()
+                .map(ProductResponseDto::getId)
+                .toList();
+
+        Assertions.assertTrue(result.contains(firstProduct.getId()));
+        Assertions.assertTrue(result.contains(secondProduct.getId()));
+        Assertions.assertFalse(result.contains(ThirdProduct.getId()));
+
+    }
+
+    @Test
+    void createProduct_whenStoreExists_thenPersistProductAndStoreLink() {
+
+        Store store = createStore(DEFAULT_STORE_NAME, DEFAULT_STORE_LOCATION, DEFAULT_STORE_EMAIL);
+
+        ProductResponseDto product = service.createProduct(store.getId(),
+                new ProductRequest("Лимонад", BigDecimal.valueOf(23.12)));
+
+        assertTrue(productRepository.existsById(product.getId()));
+        assertEquals(List.of(product.getId()), storeProductRepository.findByStoreId(store.getId()).stream()
+                .map(StoreProduct::getProductId)
+                .toList());
+
+    }
+
+    @Test
+    void createProductInStores_whenStoresExist_thenLinkProductToEachStore() {
+
+        Store firstStore = createStore(DEFAULT_STORE_NAME, DEFAULT_STORE_LOCATION, DEFAULT_STORE_EMAIL);
+        Store secondStore = createStore("Красный яр", "SomeStreet", DEFAULT_STORE_EMAIL);
+
+        ProductResponseDto product = service.createProductInStores(
+                List.of(firstStore.getId(), secondStore.getId(), firstStore.getId()),
+                new ProductRequest("Кола", BigDecimal.valueOf(73.67)));
+
+        assertEquals(1, storeProductRepository.findByStoreId(firstStore.getId()).size());
+        assertEquals(1, storeProductRepository.findByStoreId(secondStore.getId()).size());
+        assertEquals(2, storeRepository.countStoresByProductId(product.getId()));
+
+    }
+
+    @Test
+    void createProductInStores_whenStoreNotFound_thenThrowAndPersistNothing() {
+
+        Store store = createStore(DEFAULT_STORE_NAME, DEFAULT_STORE_LOCATION, DEFAULT_STORE_EMAIL);
+        long productCount = productRepository.count();
+
+        Assertions.assertThrows(NoSuchElementException.class, () -> service.createProductInStores(
+                List.of(store.getId(), UUID.randomUUID()), new ProductRequest("Квас", BigDecimal.valueOf(55.00))));
+
+        assertEquals(productCount, productRepository.count());
+        assertTrue(storeProductRepository.findByStoreId(store.getId()).isEmpty());
+
+    }
+
+    @Test
+    void createProductInStores_whenNoStoresOrInvalidProduct_thenThrowAndPersistNothing() {
+
+        Store store = createStore(DEFAULT_STORE_NAME, DEFAULT_STORE_LOCATION, DEFAULT_STORE_EMAIL);
+        long productCount = productRepository.count();
+
+        Assertions.assertThrows(ConstraintViolationException.class, () -> service.createProductInStores(
+                List.of(), new ProductRequest("Квас", BigDecimal.valueOf(55.00))));
+        Assertions.assertThrows(ConstraintViolationException.class, () -> service.createProductInStores(
+                List.of(store.getId()), new ProductRequest(" ", null)));
+        Assertions.assertThrows(ConstraintViolationException.class, () -> service.createProduct(
+                store.getId(), new ProductRequest("Квас", null)));
+
+        assertEquals(productCount, productRepository.count());
+
     }
 
 //    @Test
@@ -317,9 +455,51 @@ class StoreServiceTest extends TestContainerInitialization {
 //        }
 //    }
 
+    @Test
+    void findAllByIds_thenFoundInRequestOrderAndMissingReported() {
+
+        Store first = createStore("Пятёрочка", "ул. Ленина", "first@ya.ru");
+        Store second = createStore("Магнит", "ул. Клюквина", "second@ya.ru");
+        UUID unknown = UUID.randomUUID();
+
+        BatchResponseDto<StoreResponseDto> result = service.findAllByIds(
+                List.of(second.getId(), unknown, first.getId(), second.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                result.getItems().stream().map(StoreResponseDto::getId).toList());
+        assertEquals(List.of(unknown), result.getMissing());
+
+    }
+
+    @Test
+    void findAllByIds_whenMoreIdsThanChunk_thenAllFound() {
+
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < BatchLoader.CHUNK_SIZE + 100; i++) {
+            stores.add(new Store(null, "Магазин " + i, "ул. Ленина, " + i, "store" + i + "@ya.ru", null, null));
+        }
+        List<UUID> ids = new ArrayList<>(storeRepository.saveAllAndFlush(stores).stream().map(Store::getId).toList());
+        Collections.shuffle(ids);
+
+        BatchResponseDto<StoreResponseDto> result = service.findAllByIds(ids);
+
+        assertEquals(ids, result.getItems().stream().map(StoreResponseDto::getId).toList());
+        assertTrue(result.getMissing().isEmpty());
+
+    }
+
+    @Test
+    void findAllByIds_whenTooManyIds_thenThrow() {
+
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(BatchLoader.MAX_IDS + 1).toList();
+
+        assertThrows(ConstraintViolationException.class, () -> service.findAllByIds(ids));
+
+    }
+
     private Store createStore(String name, String location, String email) {
 
-        Store store = new Store(UUID.randomUUID(), name, location, email, null);
+        Store store = new Store(UUID.randomUUID(), name, location, email, null, null);
         store = storeRepository.saveAndFlush(store);
 
         return store;
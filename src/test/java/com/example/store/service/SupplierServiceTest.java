@@ -2,6 +2,7 @@ package com.example.store.service;
 
 import com.example.store.TestContainerInitialization;
 
+import com.example.store.dto.BatchResponseDto;
 import com.example.store.dto.SupplierResponseDto;
 import com.example.store.entity.Supplier;
 import com.example.store.repository.SupplierRepository;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.*;
 import java.util.stream.Stream;
@@ -28,6 +30,9 @@ class SupplierServiceTest extends TestContainerInitialization {
     @Autowired
     private SupplierService service;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     void clear() {
         repository.deleteAll();
@@ -104,6 +109,21 @@ class SupplierServiceTest extends TestContainerInitialization {
 
     }
 
+    @Test
+    void updateSupplier_whenSupplierIsCached_thenFindByIdReturnsUpdated() {
+
+        UUID id = createSupplier("ПершинЪ", "plant@plant.example.com", "", "пр. Чкалова",
+                "www.sbiten.example.com").getId();
+
+        assertEquals("ПершинЪ", service.findById(id).getName());
+
+        service.updateById(id, createSupplierRequest("Русский стандарт", "plant@plant.example.com",
+                "", "пр. Ленина", "www.plant.example.com"));
+
+        assertEquals("Русский стандарт", service.findById(id).getName());
+
+    }
+
 //    @ParameterizedTest
 //    @MethodSource("invalidData")
 //    void updateSupplier_whenRequestInvalid_thenThrow(String name, String email, String phone, String address,
@@ -117,9 +137,39 @@ class SupplierServiceTest extends TestContainerInitialization {
 //
 //    }
 
+    @Test
+    void deleteSupplier_whenSupplierNotFoundById_thenThrowWithoutTombstoneAndEvent() {
+
+        UUID id = UUID.randomUUID();
+
+        Assertions.assertThrows(NoSuchElementException.class, () -> service.deleteSupplier(id));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM tombstones WHERE entity_id = ?",
+                Integer.class, id));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM change_events WHERE entity_id = ?",
+                Integer.class, id));
+
+    }
+
+    @Test
+    void findAllByIds_thenFoundInRequestOrderAndMissingReported() {
+
+        Supplier first = createSupplier("Русский стандарт", "rs@plant.example.com", "+75559997788", "пр. Ленина", "www.rs.example.com");
+        Supplier second = createSupplier("Балтика", "baltika@plant.example.com", "+75559997789", "пр. Мира", "www.baltika.example.com");
+        UUID unknown = UUID.randomUUID();
+
+        BatchResponseDto<SupplierResponseDto> result = service.findAllByIds(
+                List.of(unknown, second.getId(), first.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                result.getItems().stream().map(SupplierResponseDto::getId).toList());
+        assertEquals(List.of(unknown), result.getMissing());
+
+    }
+
     private Supplier createSupplier(String name, String email, String phone, String address, String website) {
 
-        Supplier supplier = new Supplier(UUID.randomUUID(), name, email, phone, address, website, null);
+        Supplier supplier = new Supplier(UUID.randomUUID(), name, email, phone, address, website, null, null);
         supplier = repository.saveAndFlush(supplier);
 
         return supplier;
@@ -0,0 +1,244 @@
+package com.example.store.service;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.dto.StoreResponseDto;
+import com.example.store.dto.SupplierResponseDto;
+import com.example.store.dto.SyncResponseDto;
+import com.example.store.exception.InvalidCursorException;
+import com.example.store.request.StoreRequest;
+import com.example.store.request.SupplierRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SyncServiceTest extends TestContainerInitialization {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private StoreService storeService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.execute("TRUNCATE tombstones, store_products, products, stores, suppliers");
+    }
+
+    @Test
+    void syncStores_whenNoWatermark_thenAllStoresInPages() {
+
+        // Одинаковое время изменения: части ответа разделяет id (порядок UUID в Postgres — как у строк)
+        LocalDateTime updatedAt = LocalDateTime.now().minusMinutes(1);
+        List<UUID> storeIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO stores (id, name, location, email, updated_at, version) " +
+                    "VALUES (?, ?, 'Москва', ?, ?, 0)", id, "store-" + i, id + "@example.com", updatedAt);
+            storeIds.add(id);
+        }
+
+        List<UUID> synced = new ArrayList<>();
+        List<Boolean> hasMore = new ArrayList<>();
+        String watermark = null;
+        do {
+            SyncResponseDto<StoreResponseDto> response = syncService.syncStores(watermark, 2);
+            assertTrue(response.isFullResync() == (watermark == null));
+            response.getItems().forEach(store -> synced.add(store.getId()));
+            hasMore.add(response.isHasMore());
+            watermark = response.getWatermark();
+        } while (hasMore.get(hasMore.size() - 1));
+
+        assertEquals(List.of(true, true, false), hasMore);
+        assertEquals(storeIds.stream().sorted(Comparator.comparing(UUID::toString)).toList(), synced);
+
+        SyncResponseDto<StoreResponseDto> idle = syncService.syncStores(watermark, 2);
+
+        assertTrue(idle.getItems().isEmpty());
+        assertTrue(idle.getDeleted().isEmpty());
+        assertFalse(idle.isFullResync());
+
+    }
+
+    @Test
+    void syncStores_whenChangedAfterWatermark_thenOnlyChangesAndTombstones() {
+
+        StoreResponseDto kept = storeService.createStore(storeRequest("Пятёрочка"));
+        StoreResponseDto updated = storeService.createStore(storeRequest("Магнит"));
+        StoreResponseDto deleted = storeService.createStore(storeRequest("Дикси"));
+
+        String watermark = syncService.syncStores(null, 100).getWatermark();
+
+        storeService.updateById(updated.getId(), storeRequest("Магнит у дома"));
+        storeService.deleteStore(deleted.getId());
+        StoreResponseDto created = storeService.createStore(storeRequest("Перекрёсток"));
+
+        SyncResponseDto<StoreResponseDto> response = syncService.syncStores(watermark, 100);
+
+        assertFalse(response.isFullResync());
+        assertFalse(response.isHasMore());
+        assertEquals(List.of(updated.getId(), created.getId()),
+                response.getItems().stream().map(StoreResponseDto::getId).toList());
+        assertEquals("Магнит у дома", response.getItems().get(0).getName());
+        assertEquals(List.of(deleted.getId()), response.getDeleted());
+        assertFalse(response.getItems().stream().anyMatch(store -> store.getId().equals(kept.getId())));
+
+    }
+
+    @Test
+    void syncStores_whenTransactionCommitsAfterWatermark_thenItsOlderChangeNotLost() throws Exception {
+
+        UUID id = UUID.randomUUID();
+
+        // Транзакция другого сеанса: время изменения — её начало, коммит — после выдачи отметки
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO stores (id, name, location, email) VALUES (?, 'Пятёрочка', 'Москва', ?)")) {
+                statement.setObject(1, id);
+                statement.setString(2, id + "@example.com");
+                statement.executeUpdate();
+            }
+
+            Thread.sleep(50);
+            String watermark = syncService.syncStores(null, 100).getWatermark();
+
+            connection.commit();
+
+            SyncResponseDto<StoreResponseDto> response = syncService.syncStores(watermark, 100);
+
+            assertEquals(List.of(id), response.getItems().stream().map(StoreResponseDto::getId).toList());
+        }
+
+    }
+
+    @Test
+    void syncSuppliers_whenDeleted_thenTombstone() {
+
+        SupplierResponseDto supplier = supplierService.createSupplier(new SupplierRequest("Русский стандарт",
+                UUID.randomUUID() + "@example.com", null, null, null));
+
+        String watermark = syncService.syncSuppliers(null, 100).getWatermark();
+
+        supplierService.deleteSupplier(supplier.getId());
+
+        SyncResponseDto<SupplierResponseDto> response = syncService.syncSuppliers(watermark, 100);
+
+        assertTrue(response.getItems().isEmpty());
+        assertEquals(List.of(supplier.getId()), response.getDeleted());
+        assertTrue(syncService.syncStores(watermark, 100).getDeleted().isEmpty());
+
+    }
+
+    @Test
+    void syncStores_whenWatermarkOlderThanTombstoneRetention_thenFullResync() {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+        storeService.deleteStore(storeService.createStore(storeRequest("Дикси")).getId());
+
+        String expired = SyncService.encodeWatermark(new SyncService.Watermark(
+                new SyncService.Position(LocalDateTime.now().minusDays(31), UUID.randomUUID()), null));
+
+        SyncResponseDto<StoreResponseDto> response = syncService.syncStores(expired, 100);
+
+        assertTrue(response.isFullResync());
+        assertEquals(List.of(store.getId()), response.getItems().stream().map(StoreResponseDto::getId).toList());
+        assertTrue(response.getDeleted().isEmpty());
+
+    }
+
+    @Test
+    void syncStores_whenRowsOlderThanTombstoneRetention_thenFullResyncPagesToEnd() {
+
+        // Записи, не менявшиеся дольше срока хранения tombstones, — отметки внутри полной синхронизации
+        // указывают на них, но синхронизация не начинается заново
+        LocalDateTime updatedAt = LocalDateTime.now().minusDays(60);
+        List<UUID> storeIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO stores (id, name, location, email, updated_at, version) " +
+                    "VALUES (?, ?, 'Москва', ?, ?, 0)", id, "store-" + i, id + "@example.com", updatedAt);
+            storeIds.add(id);
+        }
+
+        List<UUID> synced = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        List<Boolean> fullResync = new ArrayList<>();
+        String watermark = null;
+        boolean hasMore;
+        do {
+            SyncResponseDto<StoreResponseDto> response = syncService.syncStores(watermark, 2);
+            response.getItems().forEach(store -> synced.add(store.getId()));
+            deleted.addAll(response.getDeleted());
+            fullResync.add(response.isFullResync());
+            hasMore = response.isHasMore();
+            watermark = response.getWatermark();
+
+            // Магазин, уже полученный клиентом, удаляется посреди полной синхронизации
+            if (fullResync.size() == 1) {
+                storeService.deleteStore(synced.get(0));
+            }
+        } while (hasMore && fullResync.size() < 10);
+
+        assertEquals(List.of(true, false, false), fullResync);
+        assertEquals(storeIds.stream().sorted(Comparator.comparing(UUID::toString)).toList(), synced);
+        assertEquals(List.of(synced.get(0)), deleted);
+        assertFalse(syncService.syncStores(watermark, 2).isFullResync());
+
+    }
+
+    @Test
+    void syncStores_whenFullResyncStartedBeforeTombstoneRetention_thenFullResyncAgain() {
+
+        StoreResponseDto store = storeService.createStore(storeRequest("Пятёрочка"));
+
+        String expired = SyncService.encodeWatermark(new SyncService.Watermark(
+                new SyncService.Position(LocalDateTime.now().minusDays(60), UUID.randomUUID()),
+                LocalDateTime.now().minusDays(31)));
+
+        SyncResponseDto<StoreResponseDto> response = syncService.syncStores(expired, 100);
+
+        assertTrue(response.isFullResync());
+        assertEquals(List.of(store.getId()), response.getItems().stream().map(StoreResponseDto::getId).toList());
+
+    }
+
+    @Test
+    void syncStores_whenWatermarkInvalid_thenThrow() {
+        assertThrows(InvalidCursorException.class, () -> syncService.syncStores("not-a-watermark", 10));
+    }
+
+    private static StoreRequest storeRequest(String name) {
+
+        StoreRequest request = new StoreRequest();
+        request.setName(name);
+        request.setLocation("Москва, ул. Ленина, 1");
+        request.setEmail(UUID.randomUUID() + "@example.com");
+
+        return request;
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.store.sql;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "store.sql-budget.max-statements=10",
+        "store.sql-budget.n-plus-one-threshold=3"
+})
+class SqlStatementBudgetTest extends TestContainerInitialization {
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void transaction_whenSameStatementRepeated_thenFailAsNPlusOne() {
+
+        SqlBudgetExceededException exception = assertThrows(SqlBudgetExceededException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int i = 0; i < 4; i++) {
+                        storeRepository.findById(UUID.randomUUID());
+                    }
+                }));
+
+        assertTrue(exception.getMessage().startsWith("Probable N+1"));
+
+    }
+
+    @Test
+    void transaction_whenStatementCountOverBudget_thenFail() {
+
+        SqlBudgetExceededException exception = assertThrows(SqlBudgetExceededException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Каждая форма запроса повторяется 3 раза (не N+1), но всего запросов 12
+                    for (int i = 0; i < 3; i++) {
+                        storeRepository.findById(UUID.randomUUID());
+                        storeRepository.findByLocation("ул. " + i);
+                        storeRepository.count();
+                        storeRepository.findAll();
+                    }
+                }));
+
+        assertTrue(exception.getMessage().startsWith("SQL budget exceeded"));
+
+    }
+
+    @Test
+    void transaction_whenStatementsWithinBudget_thenPass() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                storeRepository.findById(UUID.randomUUID());
+            }
+        });
+
+        // Бюджет считается на транзакцию: следующая начинает с нуля
+        assertDoesNotThrow(() -> storeRepository.findById(UUID.randomUUID()));
+
+    }
+
+    @Test
+    void runUnbudgeted_whenBulkStatements_thenSkipBudget() {
+
+        SqlStatementScope.runUnbudgeted(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 20; i++) {
+                storeRepository.save(new Store(null, "store-" + i, "ул. Ленина", "store" + i + "@ya.ru", null, null));
+            }
+        }));
+
+        assertEquals(20, storeRepository.count());
+
+    }
+
+    @Test
+    void shapeOf_whenLiteralsAndInListsDiffer_thenSameShape() {
+
+        assertEquals(
+                SqlStatementScope.shapeOf("select * from stores where id in (?, ?, ?) and name = 'a'"),
+                SqlStatementScope.shapeOf("select *  from stores\n where id in (?) and name = 'b''c'"));
+
+    }
+
+}
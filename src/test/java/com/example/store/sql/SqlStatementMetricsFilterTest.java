@@ -0,0 +1,75 @@
+package com.example.store.sql;
+
+import com.example.store.TestContainerInitialization;
+import com.example.store.entity.Store;
+import com.example.store.repository.StoreRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class SqlStatementMetricsFilterTest extends TestContainerInitialization {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @AfterEach
+    void clear() {
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    void request_whenEndpointQueriesDatabase_thenRecordStatementCountPerRequest() throws Exception {
+
+        Store store = storeRepository.saveAndFlush(new Store(UUID.randomUUID(), "Пятёрочка", "ул. Ленина",
+                "mail@ya.ru", null, null));
+
+        mockMvc.perform(get("/stores/location/{location}", store.getLocation()))
+                .andExpect(status().isOk());
+
+        DistributionSummary summary = meterRegistry.get(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("uri", "/stores/location/{location}")
+                .summary();
+
+        // Версия списка для ETag и сам список
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+
+    }
+
+    @Test
+    void prometheus_whenScraped_thenExposeRequestAndRepositoryMetrics() throws Exception {
+
+        mockMvc.perform(get("/stores/all")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_queries")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("service_calls_seconds")));
+
+    }
+
+}